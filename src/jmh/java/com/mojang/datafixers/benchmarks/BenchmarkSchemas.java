@@ -0,0 +1,249 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.datafixers.DSL;
+import com.mojang.datafixers.DataFix;
+import com.mojang.datafixers.DataFixUtils;
+import com.mojang.datafixers.DataFixerBuilder;
+import com.mojang.datafixers.TypeRewriteRule;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.types.templates.TaggedChoice;
+import com.mojang.datafixers.types.templates.TypeTemplate;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JavaOps;
+import com.mojang.serialization.JsonOps;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A synthetic but representative set of schemas and fixes: a recursive entity type dispatched through a tagged choice,
+ * items stored in lists and compound maps, and a chunk type tying them together, with fixes spread over many versions.
+ */
+public final class BenchmarkSchemas {
+    public static final DSL.TypeReference ENTITY = () -> "entity";
+    public static final DSL.TypeReference ITEM_STACK = () -> "item_stack";
+    public static final DSL.TypeReference CHUNK = () -> "chunk";
+    public static final Set<DSL.TypeReference> TYPES = Set.of(ENTITY, ITEM_STACK, CHUNK);
+
+    public static final int FIRST_VERSION = 1;
+    private static final int BASE_ENTITY_KINDS = 8;
+    private static final int NEW_ENTITY_INTERVAL = 25;
+    private static final int CHUNK_FIX_INTERVAL = 10;
+
+    private BenchmarkSchemas() {
+    }
+
+    public static DataFixerBuilder builder(final int versions) {
+        final DataFixerBuilder builder = new DataFixerBuilder(versions);
+        builder.addSchema(FIRST_VERSION, BaseSchema::new);
+        for (int version = FIRST_VERSION + 1; version <= versions; version++) {
+            if (version % NEW_ENTITY_INTERVAL == 0) {
+                final Schema schema = builder.addSchema(version, NewEntitySchema::new);
+                builder.addFixer(new AddEntityFix(schema));
+            } else {
+                final Schema schema = builder.addSchema(version, Schema::new);
+                builder.addFixer(new RenameFieldFix(schema, entityName(version % BASE_ENTITY_KINDS), "Field" + (version - 1), "Field" + version));
+                builder.addFixer(new ItemIdFix(schema));
+                if (version % CHUNK_FIX_INTERVAL == 0) {
+                    builder.addFixer(new ChunkFix(schema));
+                }
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Resolves the {@code format} parameter of the serialization benchmarks, as ops over plain objects so that any of
+     * them fits in one field.
+     */
+    @SuppressWarnings("unchecked")
+    public static DynamicOps<Object> ops(final String format) {
+        final DynamicOps<?> ops = switch (format) {
+            case "json" -> JsonOps.INSTANCE;
+            case "java" -> JavaOps.INSTANCE;
+            case "compressed" -> JsonOps.COMPRESSED;
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        return (DynamicOps<Object>) ops;
+    }
+
+    public static String entityName(final int index) {
+        return "entity_" + index;
+    }
+
+    public static Dynamic<JsonElement> chunk(final Random random, final int entities, final int depth) {
+        final JsonObject chunk = new JsonObject();
+        final JsonArray list = new JsonArray();
+        for (int i = 0; i < entities; i++) {
+            list.add(entity(random, depth));
+        }
+        chunk.add("Entities", list);
+        final JsonObject storage = new JsonObject();
+        for (int i = 0; i < 8; i++) {
+            storage.add("slot_" + i, item(random));
+        }
+        chunk.add("Storage", storage);
+        chunk.addProperty("Version", FIRST_VERSION);
+        return new Dynamic<>(JsonOps.INSTANCE, chunk);
+    }
+
+    private static JsonObject entity(final Random random, final int depth) {
+        final JsonObject entity = new JsonObject();
+        entity.addProperty("id", entityName(random.nextInt(BASE_ENTITY_KINDS)));
+        entity.addProperty("Field" + FIRST_VERSION, random.nextInt());
+        entity.addProperty("Health", random.nextFloat() * 20);
+        final JsonArray equipment = new JsonArray();
+        for (int i = 0; i < 2; i++) {
+            equipment.add(item(random));
+        }
+        entity.add("Equipment", equipment);
+        if (depth > 0) {
+            final JsonArray passengers = new JsonArray();
+            passengers.add(entity(random, depth - 1));
+            entity.add("Passengers", passengers);
+        }
+        return entity;
+    }
+
+    private static JsonObject item(final Random random) {
+        final JsonObject item = new JsonObject();
+        item.addProperty("id", "item_" + random.nextInt(64));
+        item.addProperty("Count", 1 + random.nextInt(64));
+        return item;
+    }
+
+    private static class BaseSchema extends Schema {
+        BaseSchema(final int versionKey, final Schema parent) {
+            super(versionKey, parent);
+        }
+
+        @Override
+        public void registerTypes(final Schema schema, final Map<String, Supplier<TypeTemplate>> entityTypes, final Map<String, Supplier<TypeTemplate>> blockEntityTypes) {
+            schema.registerType(true, ENTITY, () -> DSL.taggedChoiceLazy("id", DSL.string(), entityTypes));
+            schema.registerType(false, ITEM_STACK, DSL::remainder);
+            schema.registerType(false, CHUNK, () -> DSL.optionalFields(
+                "Entities", DSL.list(ENTITY.in(schema)),
+                "Storage", DSL.compoundList(ITEM_STACK.in(schema))
+            ));
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerEntities(final Schema schema) {
+            final Map<String, Supplier<TypeTemplate>> entities = new HashMap<>();
+            for (int i = 0; i < BASE_ENTITY_KINDS; i++) {
+                registerEntity(schema, entities, entityName(i));
+            }
+            return entities;
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerBlockEntities(final Schema schema) {
+            return new HashMap<>();
+        }
+    }
+
+    private static class NewEntitySchema extends Schema {
+        NewEntitySchema(final int versionKey, final Schema parent) {
+            super(versionKey, parent);
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerEntities(final Schema schema) {
+            final Map<String, Supplier<TypeTemplate>> entities = super.registerEntities(schema);
+            registerEntity(schema, entities, entityName(DataFixUtils.getVersion(getVersionKey())));
+            return entities;
+        }
+    }
+
+    private static void registerEntity(final Schema schema, final Map<String, Supplier<TypeTemplate>> entities, final String name) {
+        schema.register(entities, name, () -> DSL.optionalFields(
+            "Passengers", DSL.list(ENTITY.in(schema)),
+            "Equipment", DSL.list(ITEM_STACK.in(schema))
+        ));
+    }
+
+    private static class RenameFieldFix extends DataFix {
+        private final String entity;
+        private final String from;
+        private final String to;
+
+        RenameFieldFix(final Schema outputSchema, final String entity, final String from, final String to) {
+            super(outputSchema, false);
+            this.entity = entity;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            return fixTypeEverywhereTyped("Rename " + entity + " " + from, getInputSchema().getChoiceType(ENTITY, entity),
+                typed -> typed.update(DSL.remainderFinder(), this::rename)
+            );
+        }
+
+        private <T> Dynamic<T> rename(final Dynamic<T> dynamic) {
+            final Optional<Dynamic<T>> value = dynamic.get(from).result();
+            return value.map(v -> dynamic.remove(from).set(to, v)).orElse(dynamic);
+        }
+    }
+
+    private static class ItemIdFix extends DataFix {
+        ItemIdFix(final Schema outputSchema) {
+            super(outputSchema, false);
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            final int version = DataFixUtils.getVersion(getVersionKey());
+            return fixTypeEverywhereTyped("Item id " + version, getInputSchema().getType(ITEM_STACK),
+                typed -> typed.update(DSL.remainderFinder(), dynamic -> dynamic.update("Version", v -> v.createInt(version)))
+            );
+        }
+    }
+
+    private static class ChunkFix extends DataFix {
+        ChunkFix(final Schema outputSchema) {
+            super(outputSchema, false);
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            final Type<?> type = getInputSchema().getType(CHUNK);
+            final int version = DataFixUtils.getVersion(getVersionKey());
+            return writeFixAndRead("Chunk " + version, type, type, dynamic -> dynamic.set("Version", dynamic.createInt(version)));
+        }
+    }
+
+    private static class AddEntityFix extends DataFix {
+        AddEntityFix(final Schema outputSchema) {
+            super(outputSchema, true);
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            return cap(getInputSchema().findChoiceType(ENTITY), getOutputSchema().findChoiceType(ENTITY));
+        }
+
+        @SuppressWarnings("unchecked")
+        private <K> TypeRewriteRule cap(final TaggedChoice.TaggedChoiceType<K> inputType, final TaggedChoice.TaggedChoiceType<?> outputType) {
+            final TaggedChoice.TaggedChoiceType<K> castOutputType = (TaggedChoice.TaggedChoiceType<K>) outputType;
+            return fixTypeEverywhere("Add entity " + DataFixUtils.getVersion(getVersionKey()), inputType, castOutputType, ops -> input -> {
+                if (!castOutputType.hasType(input.getFirst())) {
+                    throw new IllegalArgumentException("Unknown entity type: " + input.getFirst());
+                }
+                return input;
+            });
+        }
+    }
+}
@@ -0,0 +1,94 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.mojang.datafixers.DataFixUtils;
+import com.mojang.datafixers.DataFixer;
+import com.mojang.datafixers.DataFixerBuilder;
+import com.mojang.datafixers.types.Type;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JsonOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady state throughput of updating data with an optimized fixer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataFixerBenchmark {
+    private static final int BATCH_SIZE = 64;
+
+    @Param({"100"})
+    public int versions;
+
+    @Param({"false", "true"})
+    public boolean compileFunctions;
+
+    private DataFixer fixer;
+    private Dynamic<JsonElement> chunk;
+    private List<Dynamic<JsonElement>> chunks;
+    private Type<?> chunkType;
+
+    @Setup
+    public void setup() throws ExecutionException, InterruptedException {
+        final DataFixerBuilder builder = BenchmarkSchemas.builder(versions);
+        builder.setCompileFunctions(compileFunctions);
+        final DataFixerBuilder.Result result = builder.build();
+        result.optimize(BenchmarkSchemas.TYPES, Runnable::run).get();
+        fixer = result.fixer();
+        final Random random = new Random(0);
+        chunk = BenchmarkSchemas.chunk(random, 16, 2);
+        chunks = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            chunks.add(BenchmarkSchemas.chunk(random, 16, 2));
+        }
+        chunkType = fixer.getSchema(DataFixUtils.makeKey(BenchmarkSchemas.FIRST_VERSION)).getTypeRaw(BenchmarkSchemas.CHUNK);
+    }
+
+    @Benchmark
+    public Dynamic<JsonElement> update() {
+        return fixer.update(BenchmarkSchemas.CHUNK, chunk, BenchmarkSchemas.FIRST_VERSION, versions);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void updateAll(final Blackhole blackhole) {
+        fixer.updateAll(BenchmarkSchemas.CHUNK, chunks.stream(), BenchmarkSchemas.FIRST_VERSION, versions).forEach(blackhole::consume);
+    }
+
+    /**
+     * Decoding and re-encoding through the type's codec, without any fixes.
+     */
+    @Benchmark
+    public DataResult<JsonElement> readAndWrite() {
+        return readAndWrite(chunkType);
+    }
+
+    private <A> DataResult<JsonElement> readAndWrite(final Type<A> type) {
+        return type.codec().decode(JsonOps.INSTANCE, chunk.getValue()).flatMap(pair -> type.codec().encode(pair.getFirst(), JsonOps.INSTANCE, pair.getSecond()));
+    }
+}
@@ -0,0 +1,57 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.mojang.datafixers.DataFixerBuilder;
+import com.mojang.serialization.Dynamic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost: building a fixer and either optimizing it up front, or paying for the rewrite on the first update.
+ * Every measurement runs in a fresh fork, since rewrites are cached for the lifetime of a fixer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class DataFixerStartupBenchmark {
+    @Param({"100"})
+    public int versions;
+
+    private Dynamic<JsonElement> chunk;
+
+    @Setup
+    public void setup() {
+        chunk = BenchmarkSchemas.chunk(new Random(0), 16, 2);
+    }
+
+    @Benchmark
+    public Object optimize() throws ExecutionException, InterruptedException {
+        final DataFixerBuilder.Result result = BenchmarkSchemas.builder(versions).build();
+        return result.optimize(BenchmarkSchemas.TYPES, ForkJoinPool.commonPool()).get();
+    }
+
+    @Benchmark
+    public Dynamic<JsonElement> coldUpdate() {
+        final DataFixerBuilder.Result result = BenchmarkSchemas.builder(versions).build();
+        return result.fixer().update(BenchmarkSchemas.CHUNK, chunk, BenchmarkSchemas.FIRST_VERSION, versions);
+    }
+}
@@ -0,0 +1,85 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.benchmarks;
+
+import com.google.gson.JsonParser;
+import com.mojang.serialization.BinaryOps;
+import com.mojang.serialization.JsonOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Scanning a file of records for a single field, from memory mapped binary or from JSON lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryScanBenchmark {
+    private static final int RECORDS = 4096;
+
+    private Path binary;
+    private Path json;
+
+    @Setup
+    public void setup() throws IOException {
+        binary = Files.createTempFile("scan", ".bin");
+        json = Files.createTempFile("scan", ".jsonl");
+        final Random random = new Random(0);
+        try (final OutputStream binaryOutput = Files.newOutputStream(binary); final BufferedWriter jsonOutput = Files.newBufferedWriter(json)) {
+            for (int i = 0; i < RECORDS; i++) {
+                final CodecBenchmark.Entity entity = CodecBenchmark.entity(random);
+                BinaryOps.INSTANCE.write(CodecBenchmark.Entity.CODEC.encodeStart(BinaryOps.INSTANCE, entity).getOrThrow(), binaryOutput);
+                jsonOutput.write(CodecBenchmark.Entity.CODEC.encodeStart(JsonOps.INSTANCE, entity).getOrThrow().toString());
+                jsonOutput.newLine();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(binary);
+        Files.delete(json);
+    }
+
+    @Benchmark
+    public long binary() throws IOException {
+        try (final Stream<ByteBuffer> values = BinaryOps.INSTANCE.readAll(binary)) {
+            return values.map(value -> BinaryOps.INSTANCE.get(value, "id").flatMap(BinaryOps.INSTANCE::getStringValue).getOrThrow())
+                .filter(id -> id.startsWith("entity_1"))
+                .count();
+        }
+    }
+
+    @Benchmark
+    public long json() throws IOException {
+        try (final BufferedReader reader = Files.newBufferedReader(json)) {
+            return reader.lines()
+                .map(line -> JsonOps.INSTANCE.get(JsonParser.parseString(line), "id").flatMap(JsonOps.INSTANCE::getStringValue).getOrThrow())
+                .filter(id -> id.startsWith("entity_1"))
+                .count();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.benchmarks;
+
+import com.mojang.datafixers.benchmarks.BenchmarkSchemas;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a record heavy structure with lists, maps and optional fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+    record Position(double x, double y, double z) {
+        static final Codec<Position> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.DOUBLE.fieldOf("x").forGetter(Position::x),
+            Codec.DOUBLE.fieldOf("y").forGetter(Position::y),
+            Codec.DOUBLE.fieldOf("z").forGetter(Position::z)
+        ).apply(i, Position::new));
+    }
+
+    record Item(String id, int count, Optional<String> name) {
+        static final Codec<Item> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.STRING.fieldOf("id").forGetter(Item::id),
+            Codec.INT.fieldOf("count").forGetter(Item::count),
+            Codec.STRING.optionalFieldOf("name").forGetter(Item::name)
+        ).apply(i, Item::new));
+    }
+
+    record Entity(String id, Position position, float health, boolean invulnerable, long uuidMost, long uuidLeast, List<Item> equipment, Map<String, Integer> scores, List<Integer> data) {
+        static final Codec<Entity> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.STRING.fieldOf("id").forGetter(Entity::id),
+            Position.CODEC.fieldOf("position").forGetter(Entity::position),
+            Codec.FLOAT.fieldOf("health").forGetter(Entity::health),
+            Codec.BOOL.optionalFieldOf("invulnerable", false).forGetter(Entity::invulnerable),
+            Codec.LONG.fieldOf("uuid_most").forGetter(Entity::uuidMost),
+            Codec.LONG.fieldOf("uuid_least").forGetter(Entity::uuidLeast),
+            Item.CODEC.listOf().fieldOf("equipment").forGetter(Entity::equipment),
+            Codec.unboundedMap(Codec.STRING, Codec.INT).fieldOf("scores").forGetter(Entity::scores),
+            Codec.INT.listOf().fieldOf("data").forGetter(Entity::data)
+        ).apply(i, Entity::new));
+    }
+
+    static final Codec<List<Entity>> CODEC = Entity.CODEC.listOf();
+
+    @Param({"json", "java", "compressed"})
+    public String format;
+
+    private DynamicOps<Object> ops;
+    private List<Entity> value;
+    private Object encoded;
+
+    @Setup
+    public void setup() {
+        ops = BenchmarkSchemas.ops(format);
+        final Random random = new Random(0);
+        value = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            value.add(entity(random));
+        }
+        encoded = CODEC.encodeStart(ops, value).getOrThrow();
+    }
+
+    static Entity entity(final Random random) {
+        final List<Item> equipment = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            equipment.add(new Item("item_" + random.nextInt(64), 1 + random.nextInt(64), random.nextBoolean() ? Optional.of("Named " + i) : Optional.empty()));
+        }
+        final Map<String, Integer> scores = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            scores.put("objective_" + i, random.nextInt());
+        }
+        final List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            data.add(random.nextInt());
+        }
+        return new Entity(
+            "entity_" + random.nextInt(16),
+            new Position(random.nextDouble(), random.nextDouble(), random.nextDouble()),
+            random.nextFloat() * 20,
+            random.nextBoolean(),
+            random.nextLong(),
+            random.nextLong(),
+            equipment,
+            scores,
+            data
+        );
+    }
+
+    @Benchmark
+    public DataResult<Object> encode() {
+        return CODEC.encodeStart(ops, value);
+    }
+
+    @Benchmark
+    public DataResult<List<Entity>> decode() {
+        return CODEC.parse(ops, encoded);
+    }
+}
@@ -0,0 +1,58 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.benchmarks;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.JsonStreamOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding from JSON text, through a Gson tree or straight from the reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonReadBenchmark {
+    private String text;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        final List<CodecBenchmark.Entity> value = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            value.add(CodecBenchmark.entity(random));
+        }
+        text = CodecBenchmark.CODEC.encodeStart(JsonOps.INSTANCE, value).getOrThrow().toString();
+    }
+
+    @Benchmark
+    public DataResult<List<CodecBenchmark.Entity>> tree() {
+        return CodecBenchmark.CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(text));
+    }
+
+    @Benchmark
+    public DataResult<List<CodecBenchmark.Entity>> stream() {
+        return JsonStreamOps.INSTANCE.parse(CodecBenchmark.CODEC, new JsonReader(new StringReader(text)));
+    }
+}
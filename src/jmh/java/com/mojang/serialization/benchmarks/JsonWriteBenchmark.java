@@ -0,0 +1,57 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.benchmarks;
+
+import com.google.gson.stream.JsonWriter;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.JsonTextOps;
+import com.mojang.datafixers.util.Unit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding to JSON text, through a Gson tree or straight to a writer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonWriteBenchmark {
+    private List<CodecBenchmark.Entity> value;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        value = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            value.add(CodecBenchmark.entity(random));
+        }
+    }
+
+    @Benchmark
+    public String tree() {
+        return CodecBenchmark.CODEC.encodeStart(JsonOps.INSTANCE, value).getOrThrow().toString();
+    }
+
+    @Benchmark
+    public DataResult<Unit> stream() {
+        return JsonTextOps.INSTANCE.encodeElements(CodecBenchmark.Entity.CODEC, value.iterator(), new JsonWriter(new StringWriter()));
+    }
+}
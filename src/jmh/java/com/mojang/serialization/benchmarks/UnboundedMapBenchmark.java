@@ -0,0 +1,60 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.benchmarks;
+
+import com.mojang.datafixers.benchmarks.BenchmarkSchemas;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a registry-like map with many entries, where per-entry overhead of the map codec dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnboundedMapBenchmark {
+    private static final Codec<Map<String, Integer>> CODEC = Codec.unboundedMap(Codec.STRING, Codec.INT);
+
+    @Param({"json", "java"})
+    public String format;
+
+    @Param({"16", "4096"})
+    public int size;
+
+    private DynamicOps<Object> ops;
+    private Object encoded;
+
+    @Setup
+    public void setup() {
+        ops = BenchmarkSchemas.ops(format);
+        final Map<String, Integer> value = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            value.put("recipe_" + i, i);
+        }
+        encoded = CODEC.encodeStart(ops, value).getOrThrow();
+    }
+
+    @Benchmark
+    public DataResult<Map<String, Integer>> decode() {
+        return CODEC.parse(ops, encoded);
+    }
+}
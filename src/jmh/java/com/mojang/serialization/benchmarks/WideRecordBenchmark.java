@@ -0,0 +1,82 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization.benchmarks;
+
+import com.mojang.datafixers.benchmarks.BenchmarkSchemas;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a single record with the widest field group, where the combinators rather than the fields dominate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WideRecordBenchmark {
+    record Wide(
+        int f0, int f1, int f2, int f3, int f4, int f5, int f6, int f7,
+        String f8, String f9, String f10, String f11, boolean f12, boolean f13, Optional<String> f14, Optional<Integer> f15
+    ) {
+        static final Codec<Wide> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.INT.fieldOf("f0").forGetter(Wide::f0),
+            Codec.INT.fieldOf("f1").forGetter(Wide::f1),
+            Codec.INT.fieldOf("f2").forGetter(Wide::f2),
+            Codec.INT.fieldOf("f3").forGetter(Wide::f3),
+            Codec.INT.fieldOf("f4").forGetter(Wide::f4),
+            Codec.INT.fieldOf("f5").forGetter(Wide::f5),
+            Codec.INT.fieldOf("f6").forGetter(Wide::f6),
+            Codec.INT.fieldOf("f7").forGetter(Wide::f7),
+            Codec.STRING.fieldOf("f8").forGetter(Wide::f8),
+            Codec.STRING.fieldOf("f9").forGetter(Wide::f9),
+            Codec.STRING.fieldOf("f10").forGetter(Wide::f10),
+            Codec.STRING.fieldOf("f11").forGetter(Wide::f11),
+            Codec.BOOL.fieldOf("f12").forGetter(Wide::f12),
+            Codec.BOOL.fieldOf("f13").forGetter(Wide::f13),
+            Codec.STRING.optionalFieldOf("f14").forGetter(Wide::f14),
+            Codec.INT.optionalFieldOf("f15").forGetter(Wide::f15)
+        ).apply(i, Wide::new));
+    }
+
+    @Param({"json", "java"})
+    public String format;
+
+    private DynamicOps<Object> ops;
+    private Wide value;
+    private Object encoded;
+
+    @Setup
+    public void setup() {
+        ops = BenchmarkSchemas.ops(format);
+        value = new Wide(0, 1, 2, 3, 4, 5, 6, 7, "eight", "nine", "ten", "eleven", true, false, Optional.of("fourteen"), Optional.empty());
+        encoded = Wide.CODEC.encodeStart(ops, value).getOrThrow();
+    }
+
+    @Benchmark
+    public DataResult<Object> encode() {
+        return Wide.CODEC.encodeStart(ops, value);
+    }
+
+    @Benchmark
+    public DataResult<Wide> decode() {
+        return Wide.CODEC.parse(ops, encoded);
+    }
+}
@@ -0,0 +1,165 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.common.collect.Maps;
+import com.mojang.serialization.Dynamic;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fans updates of many independent inputs out over an {@link Executor}.
+ * Inputs are grouped by type and version so that each group shares a single {@link DataFixer#updater},
+ * and at most {@code window} inputs are in flight at any time, which bounds memory when the source is larger than the heap.
+ * While waiting, the calling thread runs updates that no worker has picked up yet instead of blocking on them, so these
+ * methods can also be called from a worker of the same bounded executor.
+ */
+public final class BulkDataFixer {
+    private final DataFixer fixer;
+    private final Executor executor;
+    private final int window;
+    private final Map<UpdaterKey, UnaryOperator<?>> updaters = Maps.newConcurrentMap();
+
+    public record Task<T>(DSL.TypeReference type, int version, Dynamic<T> input) {
+    }
+
+    private record UpdaterKey(String typeName, int version, int newVersion) {
+    }
+
+    public BulkDataFixer(final DataFixer fixer, final Executor executor, final int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        this.fixer = fixer;
+        this.executor = executor;
+        this.window = window;
+    }
+
+    /**
+     * Updates every task to {@code newVersion}, passing the results to {@code output} on the calling thread in input order.
+     * Blocks until all tasks are done, rethrowing the first failure as a {@link CompletionException}.
+     */
+    public <T> void updateOrdered(final Iterator<Task<T>> tasks, final int newVersion, final Consumer<Dynamic<T>> output) {
+        final Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+        final Deque<CompletableFuture<Dynamic<T>>> pending = new ArrayDeque<>(window);
+        while (tasks.hasNext()) {
+            if (pending.size() >= window) {
+                output.accept(await(pending.removeFirst(), queued));
+            }
+            final Task<T> task = tasks.next();
+            final UnaryOperator<Dynamic<T>> updater = updater(task.type(), task.version(), newVersion);
+            final CompletableFuture<Dynamic<T>> result = new CompletableFuture<>();
+            submit(queued, () -> {
+                try {
+                    result.complete(updater.apply(task.input()));
+                } catch (final Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+            pending.addLast(result);
+            while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+                output.accept(pending.removeFirst().join());
+            }
+        }
+        while (!pending.isEmpty()) {
+            output.accept(await(pending.removeFirst(), queued));
+        }
+    }
+
+    /**
+     * Updates every task to {@code newVersion}, passing each task and its result to {@code output} as soon as it completes.
+     * The output is called from executor threads and must be thread-safe.
+     * Blocks until all tasks are done, rethrowing the first failure as a {@link CompletionException}.
+     */
+    public <T> void updateUnordered(final Iterator<Task<T>> tasks, final int newVersion, final BiConsumer<Task<T>, Dynamic<T>> output) {
+        final Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+        final Semaphore inFlight = new Semaphore(window);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        while (tasks.hasNext() && failure.get() == null) {
+            final Task<T> task = tasks.next();
+            final UnaryOperator<Dynamic<T>> updater = updater(task.type(), task.version(), newVersion);
+            acquire(inFlight, 1, queued);
+            try {
+                submit(queued, () -> {
+                    try {
+                        output.accept(task, updater.apply(task.input()));
+                    } catch (final Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (final RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+        acquire(inFlight, window, queued);
+        inFlight.release(window);
+        final Throwable t = failure.get();
+        if (t != null) {
+            throw new CompletionException(t);
+        }
+    }
+
+    /**
+     * Queues the job and asks the executor to run the oldest queued job, which a waiting caller may have run already.
+     */
+    private void submit(final Queue<Runnable> queued, final Runnable job) {
+        queued.add(job);
+        try {
+            executor.execute(() -> runQueued(queued));
+        } catch (final RuntimeException e) {
+            queued.remove(job);
+            throw e;
+        }
+    }
+
+    private static boolean runQueued(final Queue<Runnable> queued) {
+        final Runnable job = queued.poll();
+        if (job == null) {
+            return false;
+        }
+        job.run();
+        return true;
+    }
+
+    private static <R> R await(final CompletableFuture<R> future, final Queue<Runnable> queued) {
+        while (!future.isDone()) {
+            if (!runQueued(queued)) {
+                break;
+            }
+        }
+        return future.join();
+    }
+
+    /**
+     * Only blocks once every job has been picked up, as the ones still queued might be waiting for this very thread.
+     */
+    private static void acquire(final Semaphore semaphore, final int permits, final Queue<Runnable> queued) {
+        while (!semaphore.tryAcquire(permits)) {
+            if (!runQueued(queued)) {
+                semaphore.acquireUninterruptibly(permits);
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> UnaryOperator<Dynamic<T>> updater(final DSL.TypeReference type, final int version, final int newVersion) {
+        return (UnaryOperator<Dynamic<T>>) updaters.computeIfAbsent(new UpdaterKey(type.typeName(), version, newVersion), key -> fixer.updater(type, version, newVersion));
+    }
+}
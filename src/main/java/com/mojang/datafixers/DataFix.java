@@ -146,7 +146,7 @@ public abstract class DataFix {
 
         @Override
         public Function<A, B> apply(final DynamicOps<?> ops) {
-            return delegate.apply(ops);
+            return DataFixerProfiler.wrap(name, delegate.apply(ops));
         }
 
         @Override
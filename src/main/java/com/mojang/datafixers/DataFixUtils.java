@@ -74,7 +74,7 @@ public class DataFixUtils {
             bytes = input.array();
         } else {
             bytes = new byte[input.capacity()];
-            input.get(bytes, 0, bytes.length);
+            input.get(0, bytes, 0, bytes.length);
         }
         return bytes;
     }
@@ -5,8 +5,27 @@ package com.mojang.datafixers;
 import com.mojang.datafixers.schemas.Schema;
 import com.mojang.serialization.Dynamic;
 
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
 public interface DataFixer {
     <T> Dynamic<T> update(DSL.TypeReference type, Dynamic<T> input, int version, int newVersion);
 
+    /**
+     * Updates every input of the given type, in order, as if by calling {@link #update} on each of them.
+     * The returned stream is lazy, inputs are only fixed as it is consumed.
+     */
+    default <T> Stream<Dynamic<T>> updateAll(final DSL.TypeReference type, final Stream<Dynamic<T>> inputs, final int version, final int newVersion) {
+        return inputs.map(updater(type, version, newVersion));
+    }
+
+    /**
+     * Returns a function equivalent to calling {@link #update} with the given type and versions.
+     * Implementations may resolve the fix once up front, so the function should be reused where possible.
+     */
+    default <T> UnaryOperator<Dynamic<T>> updater(final DSL.TypeReference type, final int version, final int newVersion) {
+        return input -> update(type, input, version, newVersion);
+    }
+
     Schema getSchema(int key);
 }
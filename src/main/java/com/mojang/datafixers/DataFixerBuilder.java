@@ -3,6 +3,7 @@
 package com.mojang.datafixers;
 
 import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.RewriteCache;
 import com.mojang.datafixers.types.Type;
 import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
@@ -12,6 +13,7 @@ import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -29,6 +31,8 @@ public class DataFixerBuilder {
     private final Int2ObjectSortedMap<Schema> schemas = new Int2ObjectAVLTreeMap<>();
     private final List<DataFix> globalList = new ArrayList<>();
     private final IntSortedSet fixerVersions = new IntAVLTreeSet();
+    private RewriteCache rewriteCache = RewriteCache.unbounded();
+    private boolean compileFunctions;
 
     public DataFixerBuilder(final int dataVersion) {
         this.dataVersion = dataVersion;
@@ -62,8 +66,20 @@ public class DataFixerBuilder {
         fixerVersions.add(fix.getVersionKey());
     }
 
+    public void setRewriteCache(final RewriteCache rewriteCache) {
+        this.rewriteCache = rewriteCache;
+    }
+
+    /**
+     * Compiles the optimized fix functions with {@link com.mojang.datafixers.functions.FunctionCompiler} instead of evaluating them,
+     * which costs a hidden class per composition chain but pays off for fixers that update a lot of data.
+     */
+    public void setCompileFunctions(final boolean compileFunctions) {
+        this.compileFunctions = compileFunctions;
+    }
+
     public Result build() {
-        final DataFixerUpper fixer = new DataFixerUpper(new Int2ObjectAVLTreeMap<>(schemas), new ArrayList<>(globalList), new IntAVLTreeSet(fixerVersions));
+        final DataFixerUpper fixer = new DataFixerUpper(new Int2ObjectAVLTreeMap<>(schemas), new ArrayList<>(globalList), new IntAVLTreeSet(fixerVersions), rewriteCache, compileFunctions);
         return new Result(fixer);
     }
 
@@ -78,7 +94,26 @@ public class DataFixerBuilder {
             return fixerUpper;
         }
 
+        public RewriteCache rewriteCache() {
+            return fixerUpper.rewriteCache();
+        }
+
         public CompletableFuture<?> optimize(final Set<DSL.TypeReference> requiredTypes, final Executor executor) {
+            return optimize(requiredTypes, executor, false);
+        }
+
+        /**
+         * Like {@link #optimize(Set, Executor)}, but skips types that a previous run with the same schemas, fixes and salt
+         * found to be untouched by all fixes up to the current data version, and updates the cache file afterwards.
+         * Updates of those types return their input without decoding it.
+         */
+        public CompletableFuture<?> optimize(final Set<DSL.TypeReference> requiredTypes, final Executor executor, final Path cacheFile, final String salt) {
+            final String fingerprint = OptimizationCache.fingerprint(dataVersion, schemas, globalList, salt);
+            fixerUpper.addKnownNops(OptimizationCache.read(cacheFile, fingerprint));
+            return optimize(requiredTypes, executor, true).thenRunAsync(() -> OptimizationCache.write(cacheFile, fingerprint, fixerUpper.knownNops()), executor);
+        }
+
+        private CompletableFuture<?> optimize(final Set<DSL.TypeReference> requiredTypes, final Executor executor, final boolean checkNops) {
             final Instant started = Instant.now();
             final List<CompletableFuture<?>> doneFutures = new ArrayList<>();
             final List<CompletableFuture<?>> failFutures = new ArrayList<>();
@@ -93,10 +128,19 @@ public class DataFixerBuilder {
                     if (!requiredTypeNames.contains(typeName)) {
                         continue;
                     }
+                    final int version = DataFixUtils.getVersion(versionKey);
+                    // Only whole versions can be passed to DataFixer.update, so only those can be known to be no-ops
+                    final boolean checkNop = checkNops && DataFixUtils.getSubVersion(versionKey) == 0;
+                    if (checkNop && fixerUpper.isKnownNop(typeName, version, dataVersion)) {
+                        continue;
+                    }
                     final CompletableFuture<Void> doneFuture = CompletableFuture.runAsync(() -> {
                         final Type<?> dataType = schema.getType(() -> typeName);
-                        final TypeRewriteRule rule = fixerUpper.getRule(DataFixUtils.getVersion(versionKey), dataVersion);
-                        dataType.rewrite(rule, DataFixerUpper.OPTIMIZATION_RULE);
+                        final TypeRewriteRule rule = fixerUpper.getRule(version, dataVersion);
+                        dataType.rewrite(fixerUpper.rewriteCache(), rule, DataFixerUpper.OPTIMIZATION_RULE);
+                        if (checkNop) {
+                            fixerUpper.checkNop(typeName, version, dataVersion);
+                        }
                     }, executor);
                     doneFutures.add(doneFuture);
 
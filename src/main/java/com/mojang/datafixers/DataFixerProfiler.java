@@ -0,0 +1,163 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.common.collect.Maps;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Attributes time spent in fix functions to the fixes that created them, by the name passed to
+ * {@link DataFix#fixTypeEverywhere}, {@link DataFix#fixTypeEverywhereTyped} or {@link DataFix#writeFixAndRead}.
+ * <p>
+ * At most one profiler is active at a time, and it records invocations from all threads. Fix functions are only
+ * instrumented if a profiler is active when they are bound to ops, and they are cached once bound, so a profiler should
+ * be started before the fixer first updates the types of interest. Otherwise they run unwrapped. Times and allocations
+ * are inclusive, so they also count any work a fix does through nested fix functions.
+ */
+public final class DataFixerProfiler {
+    @Nullable
+    private static volatile DataFixerProfiler active;
+
+    private final boolean trackAllocations;
+    private final Map<String, Counters> counters = Maps.newConcurrentMap();
+
+    public record Entry(String name, long invocations, long nanos, long allocatedBytes) {
+        public static final Codec<Entry> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            Codec.STRING.fieldOf("name").forGetter(Entry::name),
+            Codec.LONG.fieldOf("invocations").forGetter(Entry::invocations),
+            Codec.LONG.fieldOf("nanos").forGetter(Entry::nanos),
+            Codec.LONG.fieldOf("allocated_bytes").forGetter(Entry::allocatedBytes)
+        ).apply(instance, Entry::new));
+    }
+
+    /**
+     * @param entries fixes ordered by total time, slowest first
+     */
+    public record Snapshot(List<Entry> entries) {
+        public static final Codec<Snapshot> CODEC = Entry.CODEC.listOf().xmap(Snapshot::new, Snapshot::entries);
+    }
+
+    private static final class Counters {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private void reset() {
+            invocations.reset();
+            nanos.reset();
+            allocatedBytes.reset();
+        }
+    }
+
+    private DataFixerProfiler(final boolean trackAllocations) {
+        this.trackAllocations = trackAllocations;
+    }
+
+    /**
+     * Starts a new profiler, replacing the active one if there is any.
+     *
+     * @param trackAllocations whether to also record bytes allocated by the calling thread, if the JVM supports and enables it
+     */
+    public static DataFixerProfiler start(final boolean trackAllocations) {
+        final DataFixerProfiler profiler = new DataFixerProfiler(trackAllocations && Allocations.isSupported());
+        active = profiler;
+        return profiler;
+    }
+
+    @Nullable
+    public static DataFixerProfiler active() {
+        return active;
+    }
+
+    /**
+     * Stops recording into this profiler. Its snapshot remains available.
+     */
+    public void stop() {
+        if (active == this) {
+            active = null;
+        }
+    }
+
+    public boolean tracksAllocations() {
+        return trackAllocations;
+    }
+
+    public void reset() {
+        // Bound fix functions hold on to their counters, so keep them
+        counters.values().forEach(Counters::reset);
+    }
+
+    public Snapshot snapshot() {
+        final List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((name, counters) -> {
+            final long invocations = counters.invocations.sum();
+            if (invocations > 0) {
+                entries.add(new Entry(name, invocations, counters.nanos.sum(), counters.allocatedBytes.sum()));
+            }
+        });
+        entries.sort(Comparator.comparingLong(Entry::nanos).reversed().thenComparing(Entry::name));
+        return new Snapshot(entries);
+    }
+
+    static <A, B> Function<A, B> wrap(final String name, final Function<A, B> function) {
+        final DataFixerProfiler profiler = active;
+        if (profiler == null) {
+            return function;
+        }
+        final Counters counters = profiler.counters.computeIfAbsent(name, n -> new Counters());
+        return input -> active == profiler ? profiler.record(counters, function, input) : function.apply(input);
+    }
+
+    private <A, B> B record(final Counters counters, final Function<A, B> function, final A input) {
+        final long allocatedBefore = trackAllocations ? Allocations.current() : 0;
+        final long start = System.nanoTime();
+        try {
+            return function.apply(input);
+        } finally {
+            final long nanos = System.nanoTime() - start;
+            counters.invocations.increment();
+            counters.nanos.add(nanos);
+            if (trackAllocations) {
+                counters.allocatedBytes.add(Allocations.current() - allocatedBefore);
+            }
+        }
+    }
+
+    private static final class Allocations {
+        @Nullable
+        private static final com.sun.management.ThreadMXBean BEAN = findBean();
+
+        @Nullable
+        private static com.sun.management.ThreadMXBean findBean() {
+            try {
+                final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                // Enabling it is left to the application, as it affects every thread
+                if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                    return sunBean;
+                }
+            } catch (final LinkageError | UnsupportedOperationException | SecurityException e) {
+                // Allocation tracking is optional
+            }
+            return null;
+        }
+
+        static boolean isSupported() {
+            return BEAN != null;
+        }
+
+        static long current() {
+            return BEAN.getCurrentThreadAllocatedBytes();
+        }
+    }
+}
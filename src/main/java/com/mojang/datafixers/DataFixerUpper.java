@@ -3,20 +3,32 @@
 package com.mojang.datafixers;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.mojang.datafixers.functions.PointFreeRule;
 import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.RewriteCache;
 import com.mojang.datafixers.types.Type;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.DynamicOps;
 import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /*
  * Optimizing functions
@@ -64,24 +76,70 @@ public class DataFixerUpper implements DataFixer {
     private final List<DataFix> globalList;
     private final IntSortedSet fixerVersions;
     private final Long2ObjectMap<TypeRewriteRule> rules = Long2ObjectMaps.synchronize(new Long2ObjectOpenHashMap<>());
+    private final RewriteCache rewriteCache;
+    private final boolean compileFunctions;
+    // Versions packed like the rule keys, so that looking an update up doesn't allocate
+    private final Map<String, LongSet> knownNops = Maps.newConcurrentMap();
+
+    record UpdateKey(String typeName, int version, int newVersion) {
+    }
 
     protected DataFixerUpper(final Int2ObjectSortedMap<Schema> schemas, final List<DataFix> globalList, final IntSortedSet fixerVersions) {
+        this(schemas, globalList, fixerVersions, RewriteCache.unbounded());
+    }
+
+    protected DataFixerUpper(final Int2ObjectSortedMap<Schema> schemas, final List<DataFix> globalList, final IntSortedSet fixerVersions, final RewriteCache rewriteCache) {
+        this(schemas, globalList, fixerVersions, rewriteCache, false);
+    }
+
+    /**
+     * @param compileFunctions whether the optimized fix functions are compiled with {@link com.mojang.datafixers.functions.FunctionCompiler} instead of evaluated directly
+     */
+    protected DataFixerUpper(final Int2ObjectSortedMap<Schema> schemas, final List<DataFix> globalList, final IntSortedSet fixerVersions, final RewriteCache rewriteCache, final boolean compileFunctions) {
         this.schemas = schemas;
         this.globalList = globalList;
         this.fixerVersions = fixerVersions;
+        this.rewriteCache = rewriteCache;
+        this.compileFunctions = compileFunctions;
     }
 
     @Override
     public <T> Dynamic<T> update(final DSL.TypeReference type, final Dynamic<T> input, final int version, final int newVersion) {
-        if (version < newVersion) {
+        if (version < newVersion && !isKnownNop(type.typeName(), version, newVersion)) {
             final Type<?> dataType = getType(type, version);
-            final DataResult<T> read = dataType.readAndWrite(input.getOps(), getType(type, newVersion), getRule(version, newVersion), OPTIMIZATION_RULE, input.getValue());
+            final DataResult<T> read = dataType.readAndWriter(rewriteCache, input.getOps(), getType(type, newVersion), getRule(version, newVersion), OPTIMIZATION_RULE, compileFunctions).apply(input.getValue());
             final T result = read.resultOrPartial(LOGGER::error).orElse(input.getValue());
             return new Dynamic<>(input.getOps(), result);
         }
         return input;
     }
 
+    @Override
+    public <T> UnaryOperator<Dynamic<T>> updater(final DSL.TypeReference type, final int version, final int newVersion) {
+        if (version >= newVersion || isKnownNop(type.typeName(), version, newVersion)) {
+            return UnaryOperator.identity();
+        }
+        final Type<?> dataType = getType(type, version);
+        final Type<?> newType = getType(type, newVersion);
+        final TypeRewriteRule rule = getRule(version, newVersion);
+        // Inputs almost always share one DynamicOps, but nothing stops callers from mixing them
+        final Map<DynamicOps<?>, Function<?, ?>> fixers = Maps.newConcurrentMap();
+        return input -> {
+            final Function<T, DataResult<T>> fixer = fixer(fixers, dataType, newType, rule, input.getOps());
+            final T result = fixer.apply(input.getValue()).resultOrPartial(LOGGER::error).orElse(input.getValue());
+            return new Dynamic<>(input.getOps(), result);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Function<T, DataResult<T>> fixer(final Map<DynamicOps<?>, Function<?, ?>> fixers, final Type<?> dataType, final Type<?> newType, final TypeRewriteRule rule, final DynamicOps<T> ops) {
+        final Function<?, ?> fixer = fixers.get(ops);
+        if (fixer != null) {
+            return (Function<T, DataResult<T>>) fixer;
+        }
+        return (Function<T, DataResult<T>>) fixers.computeIfAbsent(ops, o -> dataType.readAndWriter(rewriteCache, ops, newType, rule, OPTIMIZATION_RULE, compileFunctions));
+    }
+
     @Override
     public Schema getSchema(final int key) {
         return schemas.get(getLowestSchemaSameVersion(schemas, key));
@@ -113,7 +171,11 @@ public class DataFixerUpper implements DataFixer {
         }
 
         final long key = (long) version << 32 | newVersion;
-        return rules.computeIfAbsent(key, k -> {
+        final TypeRewriteRule cached = rules.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return rewriteCache.scoped(() -> rules.computeIfAbsent(key, k -> {
             final int expandedVersion = getLowestFixSameVersion(DataFixUtils.makeKey(version));
 
             final List<TypeRewriteRule> rules = Lists.newArrayList();
@@ -130,10 +192,53 @@ public class DataFixerUpper implements DataFixer {
             }
 
             return TypeRewriteRule.seq(rules);
-        });
+        }));
     }
 
     protected IntSortedSet fixerVersions() {
         return fixerVersions;
     }
+
+    public RewriteCache rewriteCache() {
+        return rewriteCache;
+    }
+
+    boolean isKnownNop(final String typeName, final int version, final int newVersion) {
+        final LongSet versions = knownNops.get(typeName);
+        return versions != null && versions.contains((long) version << 32 | newVersion);
+    }
+
+    private void addKnownNop(final UpdateKey key) {
+        knownNops.computeIfAbsent(key.typeName(), k -> LongSets.synchronize(new LongOpenHashSet())).add((long) key.version() << 32 | key.newVersion());
+    }
+
+    /**
+     * Resolves the rewrite used by {@link #update} and remembers whether it leaves the type untouched.
+     */
+    boolean checkNop(final String typeName, final int version, final int newVersion) {
+        if (isKnownNop(typeName, version, newVersion)) {
+            return true;
+        }
+        final boolean nop = getType(() -> typeName, version).rewrite(rewriteCache, getRule(version, newVersion), OPTIMIZATION_RULE)
+            .map(result -> result.view().isNop())
+            .orElse(false);
+        if (nop) {
+            addKnownNop(new UpdateKey(typeName, version, newVersion));
+        }
+        return nop;
+    }
+
+    void addKnownNops(final Collection<UpdateKey> keys) {
+        keys.forEach(this::addKnownNop);
+    }
+
+    Set<UpdateKey> knownNops() {
+        final Set<UpdateKey> keys = new HashSet<>();
+        knownNops.forEach((typeName, versions) -> {
+            synchronized (versions) {
+                versions.forEach((long packed) -> keys.add(new UpdateKey(typeName, (int) (packed >>> 32), (int) packed)));
+            }
+        });
+        return keys;
+    }
 }
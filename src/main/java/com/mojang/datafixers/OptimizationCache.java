@@ -0,0 +1,115 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Persists which rewrites {@link DataFixerBuilder.Result#optimize} found to be no-ops, so later startups can skip them.
+ * Optimized rewrites close over arbitrary fix functions and can't be stored, but finding out that a type is untouched
+ * between two versions still means running every fix rule over it, which is a large part of the optimization time.
+ * <p>
+ * The file is keyed by a fingerprint of the schemas, fixes and a caller-supplied salt, and is ignored if that doesn't match.
+ * Fixes are only identified by class and version, so the salt should change whenever fix code can change, such as a build id.
+ */
+final class OptimizationCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OptimizationCache.class);
+
+    private static final Codec<DataFixerUpper.UpdateKey> KEY_CODEC = RecordCodecBuilder.create(instance -> instance.group(
+        Codec.STRING.fieldOf("type").forGetter(DataFixerUpper.UpdateKey::typeName),
+        Codec.INT.fieldOf("version").forGetter(DataFixerUpper.UpdateKey::version),
+        Codec.INT.fieldOf("new_version").forGetter(DataFixerUpper.UpdateKey::newVersion)
+    ).apply(instance, DataFixerUpper.UpdateKey::new));
+
+    private record Contents(String fingerprint, List<DataFixerUpper.UpdateKey> nops) {
+        static final Codec<Contents> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            Codec.STRING.fieldOf("fingerprint").forGetter(Contents::fingerprint),
+            KEY_CODEC.listOf().fieldOf("nops").forGetter(Contents::nops)
+        ).apply(instance, Contents::new));
+    }
+
+    private OptimizationCache() {
+    }
+
+    static String fingerprint(final int dataVersion, final Int2ObjectSortedMap<Schema> schemas, final List<DataFix> fixes, final String salt) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(salt, StandardCharsets.UTF_8);
+        hasher.putInt(dataVersion);
+        for (final Int2ObjectMap.Entry<Schema> entry : schemas.int2ObjectEntrySet()) {
+            final Schema schema = entry.getValue();
+            hasher.putInt(entry.getIntKey());
+            for (final String typeName : new TreeSet<>(schema.types())) {
+                hasher.putString(typeName, StandardCharsets.UTF_8);
+                // Recursive types only print their family name, so hash them unfolded
+                hasher.putString(schema.getType(() -> typeName).toString(), StandardCharsets.UTF_8);
+            }
+        }
+        for (final DataFix fix : fixes) {
+            hasher.putString(fix.getClass().getName(), StandardCharsets.UTF_8);
+            hasher.putInt(fix.getVersionKey());
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @return the cached no-op updates, or an empty set if the file is missing, unreadable or was written for a different fingerprint
+     */
+    static Set<DataFixerUpper.UpdateKey> read(final Path path, final String fingerprint) {
+        if (!Files.isRegularFile(path)) {
+            return Set.of();
+        }
+        try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            final JsonElement json = JsonParser.parseReader(reader);
+            return Contents.CODEC.parse(JsonOps.INSTANCE, json)
+                .resultOrPartial(error -> LOGGER.warn("Ignoring malformed datafixer optimization cache {}: {}", path, error))
+                .filter(contents -> contents.fingerprint().equals(fingerprint))
+                .<Set<DataFixerUpper.UpdateKey>>map(contents -> Set.copyOf(contents.nops()))
+                .orElse(Set.of());
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warn("Failed to read datafixer optimization cache {}", path, e);
+            return Set.of();
+        }
+    }
+
+    static void write(final Path path, final String fingerprint, final Collection<DataFixerUpper.UpdateKey> nops) {
+        final Contents contents = new Contents(fingerprint, new ArrayList<>(nops));
+        final JsonElement json = Contents.CODEC.encodeStart(JsonOps.INSTANCE, contents).getOrThrow(IllegalStateException::new);
+        try {
+            final Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            final Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+            try (final Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(json.toString());
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to write datafixer optimization cache {}", path, e);
+        }
+    }
+}
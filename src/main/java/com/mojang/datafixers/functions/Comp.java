@@ -111,18 +111,24 @@ final class Comp<A, B> extends PointFree<Function<A, B>> {
 
     @Override
     public Function<DynamicOps<?>, Function<A, B>> eval() {
-        return ops -> input -> {
+        return this::resolve;
+    }
+
+    /**
+     * Binds every function in the chain to the given ops up front, in application order, so applying the result is a plain loop.
+     */
+    @SuppressWarnings("unchecked")
+    private Function<A, B> resolve(final DynamicOps<?> ops) {
+        final Function<Object, Object>[] chain = (Function<Object, Object>[]) new Function<?, ?>[functions.length];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = (Function<Object, Object>) functions[functions.length - 1 - i].evalCached().apply(ops);
+        }
+        return input -> {
             Object value = input;
-            for (int i = functions.length - 1; i >= 0; i--) {
-                final PointFree<? extends Function<?, ?>> f = functions[i];
-                value = applyUnchecked(f.evalCached().apply(ops), value);
+            for (final Function<Object, Object> f : chain) {
+                value = f.apply(value);
             }
             return (B) value;
         };
     }
-
-    @SuppressWarnings("unchecked")
-    private static <A, B> B applyUnchecked(final Function<A, B> function, final Object input) {
-        return function.apply((A) input);
-    }
 }
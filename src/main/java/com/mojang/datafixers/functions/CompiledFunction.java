@@ -0,0 +1,36 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.functions;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.function.Function;
+
+/**
+ * Template for the hidden classes defined by {@link FunctionCompiler}, never loaded directly.
+ * Each hidden copy receives its own pipeline as class data, which the JIT treats as a constant and can inline through.
+ */
+final class CompiledFunction implements Function<Object, Object> {
+    private static final MethodHandle HANDLE;
+
+    static {
+        try {
+            HANDLE = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (final IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Object apply(final Object input) {
+        try {
+            return (Object) HANDLE.invokeExact(input);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+}
@@ -14,6 +14,7 @@ import com.mojang.datafixers.types.templates.RecursivePoint;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DynamicOps;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,8 @@ final class Fold<A, B> extends PointFree<Function<A, B>> {
     protected final RecursivePoint.RecursivePointType<B> bType;
     protected final Algebra algebra;
     protected final int index;
+    @Nullable
+    private volatile PointFree<Function<A, B>> capped;
 
     public Fold(final RecursivePoint.RecursivePointType<A> aType, final RecursivePoint.RecursivePointType<B> bType, final Algebra algebra, final int index) {
         this.aType = aType;
@@ -78,18 +81,48 @@ final class Fold<A, B> extends PointFree<Function<A, B>> {
         return Functions.comp(((View<FB, B>) op.view()).function(), ((View<A, FB>) resResult.view()).function());
     }
 
-    @Override
-    public Function<DynamicOps<?>, Function<A, B>> eval() {
-        return ops -> a -> {
+    private PointFree<Function<A, B>> capped() {
+        PointFree<Function<A, B>> capped = this.capped;
+        if (capped == null) {
             final RecursiveTypeFamily family = aType.family();
             final RecursiveTypeFamily newFamily = bType.family();
 
             final IntFunction<RewriteResult<?, ?>> hmapped = HMAP_CACHE.computeIfAbsent(new HmapCacheKey(family, newFamily, algebra), key -> key.family().template().hmap(key.family(), key.family().fold(key.algebra(), key.newFamily())));
             final RewriteResult<?, ?> result = HMAP_APPLY_CACHE.computeIfAbsent(Pair.of(hmapped, index), key -> key.getFirst().apply(key.getSecond()));
 
-            final PointFree<Function<A, B>> eval = cap(result);
-            return eval.evalCached().apply(ops).apply(a);
-        };
+            capped = cap(result);
+            this.capped = capped;
+        }
+        return capped;
+    }
+
+    @Override
+    public Function<DynamicOps<?>, Function<A, B>> eval() {
+        // The capped function contains folds over the same family, so it can only be bound once it is first applied
+        return ops -> new LazyFunction<>(this, ops);
+    }
+
+    private static final class LazyFunction<A, B> implements Function<A, B> {
+        private final Fold<A, B> fold;
+        private final DynamicOps<?> ops;
+        @Nullable
+        private Function<A, B> function;
+
+        private LazyFunction(final Fold<A, B> fold, final DynamicOps<?> ops) {
+            this.fold = fold;
+            this.ops = ops;
+        }
+
+        @Override
+        public B apply(final A a) {
+            Function<A, B> function = this.function;
+            if (function == null) {
+                // Racing threads resolve the same cached function, so publishing it without synchronization is fine
+                function = fold.capped().evalCached().apply(ops);
+                this.function = function;
+            }
+            return function.apply(a);
+        }
     }
 
     @Override
@@ -0,0 +1,103 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.functions;
+
+import com.mojang.datafixers.types.Func;
+import com.mojang.serialization.DynamicOps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Alternative to {@link PointFree#evalCached()} for optimized functions that are applied to many values.
+ * <p>
+ * Composition chains are turned into a single method handle pipeline, and each pipeline is installed as a constant in its own
+ * hidden class. Every step of the chain then has a constant receiver, so the JIT can inline through the whole chain
+ * instead of dispatching megamorphic {@link Function#apply} calls one step at a time.
+ * Functions passed through optics are compiled the same way before being handed to the optic.
+ */
+public final class FunctionCompiler {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle APPLY;
+    private static final MethodHandle IDENTITY = MethodHandles.identity(Object.class);
+    private static final byte[] TEMPLATE;
+
+    static {
+        try {
+            APPLY = LOOKUP.findVirtual(Function.class, "apply", MethodType.methodType(Object.class, Object.class));
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        try (final InputStream stream = FunctionCompiler.class.getResourceAsStream(CompiledFunction.class.getSimpleName() + ".class")) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing compiled function template");
+            }
+            TEMPLATE = stream.readAllBytes();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FunctionCompiler() {
+    }
+
+    /**
+     * @return the compiled function, remembered by the point-free term for each {@link DynamicOps} instance like {@link PointFree#evalCached()}
+     */
+    public static <A, B> Function<A, B> compile(final PointFree<Function<A, B>> function, final DynamicOps<?> ops) {
+        return function.compiledCached(ops);
+    }
+
+    static Function<?, ?> compileFunction(final PointFree<? extends Function<?, ?>> function, final DynamicOps<?> ops) {
+        if (function instanceof Comp<?, ?> comp) {
+            final List<MethodHandle> steps = new ArrayList<>(comp.functions.length);
+            // Functions in a composition are stored outermost first
+            for (int i = comp.functions.length - 1; i >= 0; i--) {
+                steps.add(APPLY.bindTo(compileFunction(comp.functions[i], ops)));
+            }
+            return define(chain(steps, 0, steps.size()));
+        }
+        if (function instanceof Apply<?, ?> apply && apply.arg.type() instanceof Func<?, ?>) {
+            return (Function<?, ?>) applyCompiled(apply, ops);
+        }
+        return function.evalCached().apply(ops);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A, B> B applyCompiled(final Apply<A, B> apply, final DynamicOps<?> ops) {
+        final A arg = (A) compileFunction((PointFree<? extends Function<?, ?>>) apply.arg, ops);
+        return apply.func.evalCached().apply(ops).apply(arg);
+    }
+
+    /**
+     * Composes the steps as a balanced tree, so that long chains don't exceed the JIT's inlining depth.
+     */
+    private static MethodHandle chain(final List<MethodHandle> steps, final int from, final int to) {
+        if (from == to) {
+            return IDENTITY;
+        }
+        if (to - from == 1) {
+            return steps.get(from);
+        }
+        final int middle = (from + to) >>> 1;
+        return MethodHandles.filterReturnValue(chain(steps, from, middle), chain(steps, middle, to));
+    }
+
+    private static Function<?, ?> define(final MethodHandle handle) {
+        try {
+            final MethodHandles.Lookup lookup = LOOKUP.defineHiddenClassWithClassData(TEMPLATE, handle, true);
+            return (Function<?, ?>) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable t) {
+            throw new IllegalStateException("Failed to define compiled function", t);
+        }
+    }
+}
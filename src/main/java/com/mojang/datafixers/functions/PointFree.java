@@ -6,16 +6,89 @@ import com.mojang.datafixers.types.Type;
 import com.mojang.serialization.DynamicOps;
 
 import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.function.Function;
 
 public abstract class PointFree<T> {
+    // Deployments rarely use more than a couple of DynamicOps, beyond this newer ones take turns in the last slot
+    private static final int MAX_BOUND_OPS = 4;
+    private static final Bound<?>[] NO_BOUND = new Bound<?>[0];
+
     private volatile boolean initialized;
     @Nullable
     private Function<DynamicOps<?>, T> value;
+    private volatile Bound<?>[] bound = NO_BOUND;
+    private volatile Bound<?>[] compiled = NO_BOUND;
+    private final Function<DynamicOps<?>, T> bindCached = this::bindCached;
 
-    @SuppressWarnings("ConstantConditions")
+    // Terms live as long as the fixer, so ops created per call must not be kept alive by them
+    private record Bound<T>(WeakReference<DynamicOps<?>> ops, T value) {
+    }
+
+    /**
+     * @return the evaluated function, which remembers its result for each {@link DynamicOps} instance it is applied to
+     */
     public Function<DynamicOps<?>, T> evalCached() {
+        return bindCached;
+    }
+
+    private T bindCached(final DynamicOps<?> ops) {
+        return bind(ops, false);
+    }
+
+    /**
+     * Like {@link #evalCached()}, but the function is built by {@link FunctionCompiler}, and remembered separately from the evaluated one.
+     */
+    T compiledCached(final DynamicOps<?> ops) {
+        return bind(ops, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T bind(final DynamicOps<?> ops, final boolean compile) {
+        for (final Bound<?> entry : compile ? compiled : bound) {
+            if (entry.ops().get() == ops) {
+                return (T) entry.value();
+            }
+        }
+        // Evaluate outside the lock, as binding a function binds everything nested inside it
+        final T value = compile ? (T) FunctionCompiler.compileFunction((PointFree<? extends Function<?, ?>>) this, ops) : evaluator().apply(ops);
+        synchronized (this) {
+            final Bound<?>[] current = compile ? compiled : bound;
+            int free = -1;
+            for (int i = 0; i < current.length; i++) {
+                final DynamicOps<?> boundOps = current[i].ops().get();
+                if (boundOps == ops) {
+                    return (T) current[i].value();
+                }
+                if (boundOps == null && free == -1) {
+                    free = i;
+                }
+            }
+            final Bound<?>[] updated;
+            if (free != -1) {
+                updated = current.clone();
+            } else if (current.length < MAX_BOUND_OPS) {
+                updated = Arrays.copyOf(current, current.length + 1);
+                free = current.length;
+            } else {
+                // Every slot holds live ops, keep the ones bound first and let newer ones take turns in the last slot
+                updated = current.clone();
+                free = current.length - 1;
+            }
+            updated[free] = new Bound<>(new WeakReference<>(ops), value);
+            if (compile) {
+                compiled = updated;
+            } else {
+                bound = updated;
+            }
+        }
+        return value;
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private Function<DynamicOps<?>, T> evaluator() {
         if (!initialized) {
             synchronized (this) {
                 if (!initialized) {
@@ -0,0 +1,182 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers.types;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Maps;
+import com.mojang.datafixers.RewriteResult;
+import com.mojang.datafixers.TypeRewriteRule;
+import com.mojang.datafixers.functions.PointFreeRule;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes {@link Type#rewrite} results.
+ * Rewrites use the cache installed on the current thread through {@link #scoped}. Outside any scope, a rewrite only
+ * shares results with the rewrites nested inside it, and nothing is remembered once it returns.
+ * Entries are only an optimization, so implementations are free to evict them at any time.
+ */
+public abstract class RewriteCache {
+    private static final ThreadLocal<RewriteCache> CURRENT = new ThreadLocal<>();
+
+    private final Map<Key, CompletableFuture<Entry>> pending = Maps.newConcurrentMap();
+
+    public record Key(Type<?> type, TypeRewriteRule rule, PointFreeRule optimizationRule) {
+    }
+
+    /**
+     * A remembered rewrite, which is empty if the rule could not be applied.
+     */
+    public record Entry(Optional<? extends RewriteResult<?, ?>> result) {
+    }
+
+    public record Stats(long hitCount, long missCount, long evictionCount, long size) {
+    }
+
+    @Nullable
+    public abstract Entry get(Key key);
+
+    public abstract void put(Key key, Entry entry);
+
+    public abstract Stats stats();
+
+    public abstract void invalidateAll();
+
+    /**
+     * Keeps every rewrite. Only the size is reported by {@link #stats()}.
+     */
+    public static RewriteCache unbounded() {
+        return new MapCache();
+    }
+
+    /**
+     * Keeps at most {@code maximumSize} rewrites, evicting the least recently used ones first.
+     */
+    public static RewriteCache bounded(final long maximumSize) {
+        return bounded(maximumSize, false);
+    }
+
+    /**
+     * @param recordStats whether {@link #stats()} reports hits, misses and evictions, which costs some bookkeeping on every lookup
+     */
+    public static RewriteCache bounded(final long maximumSize, final boolean recordStats) {
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maximumSize);
+        return new GuavaCache(recordStats ? builder.recordStats().build() : builder.build());
+    }
+
+    /**
+     * @return the cache installed on this thread, or a fresh one if there is none
+     */
+    public static RewriteCache current() {
+        final RewriteCache cache = CURRENT.get();
+        return cache != null ? cache : unbounded();
+    }
+
+    public <T> T scoped(final Supplier<T> action) {
+        final RewriteCache previous = CURRENT.get();
+        if (previous == this) {
+            return action.get();
+        }
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs a rewrite that is missing from this cache within its scope, and remembers the result.
+     */
+    Entry compute(final Key key, final Supplier<Optional<? extends RewriteResult<?, ?>>> rewrite) {
+        // This code under contention would generate multiple rewrites, so we use CompletableFuture for pending rewrites.
+        // We can not use computeIfAbsent because this is a recursive call that will block server startup
+        // during the Bootstrap phrase that's trying to pre cache these rewrites.
+        final AtomicReference<CompletableFuture<Entry>> ref = new AtomicReference<>();
+        final CompletableFuture<Entry> future = pending.computeIfAbsent(key, k -> {
+            final CompletableFuture<Entry> value = new CompletableFuture<>();
+            ref.setPlain(value);
+            return value;
+        });
+        if (ref.getPlain() == null) {
+            return future.join();
+        }
+        try {
+            final Entry entry = new Entry(scoped(rewrite));
+            put(key, entry);
+            future.complete(entry);
+            return entry;
+        } catch (final RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(key);
+        }
+    }
+
+    private static final class MapCache extends RewriteCache {
+        private final Map<Key, Entry> cache = Maps.newConcurrentMap();
+
+        @Nullable
+        @Override
+        public Entry get(final Key key) {
+            return cache.get(key);
+        }
+
+        @Override
+        public void put(final Key key, final Entry entry) {
+            cache.put(key, entry);
+        }
+
+        @Override
+        public Stats stats() {
+            return new Stats(0, 0, 0, cache.size());
+        }
+
+        @Override
+        public void invalidateAll() {
+            cache.clear();
+        }
+    }
+
+    private static final class GuavaCache extends RewriteCache {
+        private final Cache<Key, Entry> cache;
+
+        private GuavaCache(final Cache<Key, Entry> cache) {
+            this.cache = cache;
+        }
+
+        @Nullable
+        @Override
+        public Entry get(final Key key) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void put(final Key key, final Entry entry) {
+            cache.put(key, entry);
+        }
+
+        @Override
+        public Stats stats() {
+            final CacheStats stats = cache.stats();
+            return new Stats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.size());
+        }
+
+        @Override
+        public void invalidateAll() {
+            cache.invalidateAll();
+        }
+    }
+}
@@ -2,7 +2,6 @@
 // Licensed under the MIT license.
 package com.mojang.datafixers.types;
 
-import com.google.common.collect.Maps;
 import com.mojang.datafixers.DSL;
 import com.mojang.datafixers.DataFixUtils;
 import com.mojang.datafixers.FieldFinder;
@@ -12,6 +11,7 @@ import com.mojang.datafixers.TypeRewriteRule;
 import com.mojang.datafixers.Typed;
 import com.mojang.datafixers.TypedOptic;
 import com.mojang.datafixers.View;
+import com.mojang.datafixers.functions.FunctionCompiler;
 import com.mojang.datafixers.functions.Functions;
 import com.mojang.datafixers.functions.PointFreeRule;
 import com.mojang.datafixers.kinds.App;
@@ -27,18 +27,10 @@ import com.mojang.serialization.Dynamic;
 import com.mojang.serialization.DynamicOps;
 
 import javax.annotation.Nullable;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 public abstract class Type<A> implements App<Type.Mu, A> {
-    private static final Map<RewriteCacheKey, CompletableFuture<Optional<? extends RewriteResult<?, ?>>>> PENDING_REWRITE_CACHE = Maps.newConcurrentMap();
-    private static final Map<RewriteCacheKey, Optional<? extends RewriteResult<?, ?>>> REWRITE_CACHE = Maps.newConcurrentMap();
-
-    private record RewriteCacheKey(Type<?> type, TypeRewriteRule rule, PointFreeRule optimizationRule) {
-    }
-
     public static class Mu implements K1 {}
 
     public static <A> Type<A> unbox(final App<Mu, A> box) {
@@ -146,54 +138,61 @@ public abstract class Type<A> implements App<Type.Mu, A> {
     }
 
     public <T> DataResult<T> readAndWrite(final DynamicOps<T> ops, final Type<?> expectedType, final TypeRewriteRule rule, final PointFreeRule fRule, final T input) {
-        final Optional<RewriteResult<A, ?>> rewriteResult = rewrite(rule, fRule);
+        return readAndWriter(ops, expectedType, rule, fRule).apply(input);
+    }
+
+    /**
+     * Resolves the rewrite, the rewritten type check and the evaluated view function once,
+     * returning a function that applies them to any number of inputs with the same result as {@link #readAndWrite}.
+     */
+    public <T> Function<T, DataResult<T>> readAndWriter(final DynamicOps<T> ops, final Type<?> expectedType, final TypeRewriteRule rule, final PointFreeRule fRule) {
+        return readAndWriter(RewriteCache.current(), ops, expectedType, rule, fRule, false);
+    }
+
+    /**
+     * @param cache the cache for the rewrite, see {@link #rewrite(RewriteCache, TypeRewriteRule, PointFreeRule)}
+     * @param compile whether the view function is built by {@link FunctionCompiler} rather than evaluated
+     */
+    public <T> Function<T, DataResult<T>> readAndWriter(final RewriteCache cache, final DynamicOps<T> ops, final Type<?> expectedType, final TypeRewriteRule rule, final PointFreeRule fRule, final boolean compile) {
+        final Optional<RewriteResult<A, ?>> rewriteResult = rewrite(cache, rule, fRule);
         if (!rewriteResult.isPresent()) {
-            return DataResult.error(() -> "Could not build a rewrite rule: " + rule + " " + fRule, input);
+            return input -> DataResult.error(() -> "Could not build a rewrite rule: " + rule + " " + fRule, input);
         }
         final View<A, ?> view = rewriteResult.get().view();
         if (view.isNop()) {
-            return DataResult.success(input);
+            return DataResult::success;
         }
-
-        return codec().decode(ops, input).flatMap(pair ->
-            capWrite(ops, expectedType, pair.getSecond(), pair.getFirst(), view)
-        );
+        return capWriter(ops, expectedType, view, compile);
     }
 
-    private <T, B> DataResult<T> capWrite(final DynamicOps<T> ops, final Type<?> expectedType, final T rest, final A value, final View<A, B> f) {
+    private <T, B> Function<T, DataResult<T>> capWriter(final DynamicOps<T> ops, final Type<?> expectedType, final View<A, B> f, final boolean compile) {
+        final Codec<A> codec = codec();
         if (!expectedType.equals(f.newType(), true, true)) {
-            return DataResult.error(() -> "Rewritten type doesn't match");
+            return input -> codec.decode(ops, input).flatMap(pair -> DataResult.error(() -> "Rewritten type doesn't match"));
         }
-        final B fixed = f.function().evalCached().apply(ops).apply(value);
-        return f.newType().codec().encode(fixed, ops, rest);
+        final Function<A, B> function = compile ? FunctionCompiler.compile(f.function(), ops) : f.function().evalCached().apply(ops);
+        final Codec<B> newCodec = f.newType().codec();
+        return input -> codec.decode(ops, input).flatMap(pair ->
+            newCodec.encode(function.apply(pair.getFirst()), ops, pair.getSecond())
+        );
     }
 
-    @SuppressWarnings("unchecked")
     public Optional<RewriteResult<A, ?>> rewrite(final TypeRewriteRule rule, final PointFreeRule fRule) {
-        final RewriteCacheKey key = new RewriteCacheKey(this, rule, fRule);
-        // This code under contention would generate multiple rewrites, so we use CompletableFuture for pending rewrites.
-        // We can not use computeIfAbsent because this is a recursive call that will block server startup
-        // during the Bootstrap phrase that's trying to pre cache these rewrites.
-        final Optional<? extends RewriteResult<?, ?>> rewrite = REWRITE_CACHE.get(key);
-        if (rewrite != null) {
-            return (Optional<RewriteResult<A, ?>>) rewrite;
-        }
-        final AtomicReference<CompletableFuture<Optional<? extends RewriteResult<?, ?>>>> ref = new AtomicReference<>();
-
-        final CompletableFuture<Optional<? extends RewriteResult<?, ?>>> pending = PENDING_REWRITE_CACHE.computeIfAbsent(key, k -> {
-            final CompletableFuture<Optional<? extends RewriteResult<?, ?>>> value = new CompletableFuture<>();
-            ref.setPlain(value);
-            return value;
-        });
+        return rewrite(RewriteCache.current(), rule, fRule);
+    }
 
-        if (ref.getPlain() != null) {
-            final Optional<RewriteResult<A, ?>> result = rule.rewrite(this).flatMap(r -> r.view().rewrite(fRule).map(view -> RewriteResult.create(view, r.recData())));
-            REWRITE_CACHE.put(key, result);
-            pending.complete(result);
-            PENDING_REWRITE_CACHE.remove(key);
-            return result;
+    /**
+     * Like {@link #rewrite(TypeRewriteRule, PointFreeRule)}, but with an explicit cache, which is only installed on the
+     * current thread if the rewrite has to be computed.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<RewriteResult<A, ?>> rewrite(final RewriteCache cache, final TypeRewriteRule rule, final PointFreeRule fRule) {
+        final RewriteCache.Key key = new RewriteCache.Key(this, rule, fRule);
+        RewriteCache.Entry entry = cache.get(key);
+        if (entry == null) {
+            entry = cache.compute(key, () -> rule.rewrite(this).flatMap(r -> r.view().rewrite(fRule).map(view -> RewriteResult.create(view, r.recData()))));
         }
-        return (Optional<RewriteResult<A, ?>>) pending.join();
+        return (Optional<RewriteResult<A, ?>>) entry.result();
     }
 
     public <FT, FR> Type<?> getSetType(final OpticFinder<FT> optic, final Type<FR> newType) {
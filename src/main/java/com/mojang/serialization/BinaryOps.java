@@ -0,0 +1,1201 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.mojang.datafixers.util.Pair;
+
+import javax.annotation.Nullable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ops over a compact, self-describing binary format. Every value is a {@link ByteBuffer} holding exactly its encoded bytes,
+ * from its position to its limit, so values read from a larger buffer are zero-copy views into it.
+ * <p>
+ * Each value starts with a tag byte. Integers are stored as zig-zag varints, floating point numbers as fixed width
+ * big-endian values, and strings as a varint length followed by UTF-8 bytes. Lists and maps store the varint length
+ * of their body followed by the entry count and the entries, so that readers can skip over them without decoding them.
+ * Byte, int and long lists have dedicated fixed width array encodings.
+ * <p>
+ * Getters navigate the encoded bytes lazily: {@link MapLike#get} only compares keys and skips over the values of
+ * other entries. Values must not be modified, and that includes their position and limit.
+ */
+public final class BinaryOps implements DynamicOps<ByteBuffer> {
+    public static final BinaryOps INSTANCE = new BinaryOps();
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte STRING = 9;
+    private static final byte LIST = 10;
+    private static final byte MAP = 11;
+    private static final byte BYTE_ARRAY = 12;
+    private static final byte INT_ARRAY = 13;
+    private static final byte LONG_ARRAY = 14;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.wrap(new byte[] {NULL}).asReadOnlyBuffer();
+    private static final ByteBuffer EMPTY_MAP = ByteBuffer.wrap(new byte[] {MAP, 1, 0}).asReadOnlyBuffer();
+    private static final ByteBuffer EMPTY_LIST = ByteBuffer.wrap(new byte[] {LIST, 1, 0}).asReadOnlyBuffer();
+    private static final ByteBuffer FALSE_VALUE = ByteBuffer.wrap(new byte[] {FALSE}).asReadOnlyBuffer();
+    private static final ByteBuffer TRUE_VALUE = ByteBuffer.wrap(new byte[] {TRUE}).asReadOnlyBuffer();
+
+    private static final int MAX_MAPPED_REGION = Integer.MAX_VALUE;
+    // Lengths read from a stream are only trusted as far as the bytes that actually arrive
+    private static final int STREAM_CHUNK = 8192;
+
+    private BinaryOps() {
+    }
+
+    /**
+     * Reads the value at the source's position, and moves the position past it.
+     *
+     * @return a view of the value within the source
+     * @throws BufferUnderflowException if the source ends before the value does
+     */
+    public ByteBuffer read(final ByteBuffer source) {
+        final ByteBuffer value = tryRead(source);
+        if (value == null) {
+            throw new BufferUnderflowException();
+        }
+        return value;
+    }
+
+    /**
+     * Lazily reads the values stored back to back from the source's position to its limit, moving the position past
+     * each value as it is read.
+     */
+    public Stream<ByteBuffer> readAll(final ByteBuffer source) {
+        final Spliterator<ByteBuffer> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(final Consumer<? super ByteBuffer> action) {
+                if (!source.hasRemaining()) {
+                    return false;
+                }
+                action.accept(read(source));
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    /**
+     * Lazily reads the values stored back to back in a file. The file is memory mapped, and values are views into the
+     * mapped regions, so reading a few fields of each value only touches the pages holding them.
+     * <p>
+     * The returned stream must be closed to release the file. Values remain valid after that, until they are no longer
+     * reachable.
+     */
+    public Stream<ByteBuffer> readAll(final Path file) throws IOException {
+        return readAll(file, MAX_MAPPED_REGION);
+    }
+
+    Stream<ByteBuffer> readAll(final Path file, final int maxRegion) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            final MappedValues values = new MappedValues(channel, maxRegion);
+            return StreamSupport.stream(values, false).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the value at the source's position if the source holds all of it, and moves the position past it.
+     */
+    @Nullable
+    private static ByteBuffer tryRead(final ByteBuffer source) {
+        final int position = source.position();
+        if (!source.hasRemaining()) {
+            return null;
+        }
+        final int size;
+        try {
+            size = size(source, position);
+        } catch (final IndexOutOfBoundsException e) {
+            // The length prefix itself is cut off
+            return null;
+        }
+        if (size <= 0 || size > source.remaining()) {
+            return null;
+        }
+        source.position(position + size);
+        return source.slice(position, size);
+    }
+
+    /**
+     * Reads the next value from the stream.
+     *
+     * @return the value, or {@code null} if the stream ended before it
+     * @throws EOFException if the stream ends in the middle of a value
+     */
+    @Nullable
+    public ByteBuffer read(final InputStream input) throws IOException {
+        final int tag = input.read();
+        if (tag < 0) {
+            return null;
+        }
+        final Output output = new Output(16);
+        output.writeByte(tag);
+        switch (tag) {
+            case NULL, FALSE, TRUE -> {
+            }
+            case BYTE -> copy(input, output, 1);
+            case SHORT, INT, LONG -> copyVarLong(input, output);
+            case FLOAT -> copy(input, output, Float.BYTES);
+            case DOUBLE -> copy(input, output, Double.BYTES);
+            case STRING, LIST, MAP -> copy(input, output, copyVarInt(input, output));
+            case BYTE_ARRAY -> copy(input, output, copyVarInt(input, output));
+            case INT_ARRAY -> copy(input, output, copyVarInt(input, output) * (long) Integer.BYTES);
+            case LONG_ARRAY -> copy(input, output, copyVarInt(input, output) * (long) Long.BYTES);
+            default -> throw new IOException("Unknown tag: " + tag);
+        }
+        return output.toBuffer();
+    }
+
+    public void write(final ByteBuffer value, final ByteBuffer target) {
+        target.put(value.duplicate());
+    }
+
+    public void write(final ByteBuffer value, final OutputStream output) throws IOException {
+        if (value.hasArray()) {
+            output.write(value.array(), value.arrayOffset() + value.position(), value.remaining());
+        } else {
+            final byte[] bytes = new byte[value.remaining()];
+            value.get(value.position(), bytes);
+            output.write(bytes);
+        }
+    }
+
+    private static void copy(final InputStream input, final Output output, final long length) throws IOException {
+        if (length > Integer.MAX_VALUE - output.length) {
+            throw new IOException("Value too large: " + length + " bytes");
+        }
+        for (long remaining = length; remaining > 0; ) {
+            final int chunk = (int) Math.min(remaining, STREAM_CHUNK);
+            final int start = output.reserve(chunk);
+            if (input.readNBytes(output.bytes, start, chunk) != chunk) {
+                throw new EOFException();
+            }
+            remaining -= chunk;
+        }
+    }
+
+    /**
+     * Copies a length, which must fit in a non-negative int.
+     */
+    private static int copyVarInt(final InputStream input, final Output output) throws IOException {
+        final long value = copyVarLong(input, output, 5);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Length out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static void copyVarLong(final InputStream input, final Output output) throws IOException {
+        copyVarLong(input, output, 10);
+    }
+
+    private static long copyVarLong(final InputStream input, final Output output, final int maxBytes) throws IOException {
+        long value = 0;
+        for (int i = 0; i < maxBytes; i++) {
+            final int b = input.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            output.writeByte(b);
+            value |= (long) (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint longer than " + maxBytes + " bytes");
+    }
+
+    @Override
+    public ByteBuffer empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public ByteBuffer emptyMap() {
+        return EMPTY_MAP;
+    }
+
+    @Override
+    public ByteBuffer emptyList() {
+        return EMPTY_LIST;
+    }
+
+    @Override
+    public <U> U convertTo(final DynamicOps<U> outOps, final ByteBuffer input) {
+        if (outOps == this) {
+            @SuppressWarnings("unchecked")
+            final U result = (U) input;
+            return result;
+        }
+        final int offset = input.position();
+        return switch (input.get(offset)) {
+            case NULL -> outOps.empty();
+            case FALSE -> outOps.createBoolean(false);
+            case TRUE -> outOps.createBoolean(true);
+            case BYTE -> outOps.createByte(input.get(offset + 1));
+            case SHORT -> outOps.createShort((short) readSignedVarLong(input, offset + 1));
+            case INT -> outOps.createInt((int) readSignedVarLong(input, offset + 1));
+            case LONG -> outOps.createLong(readSignedVarLong(input, offset + 1));
+            case FLOAT -> outOps.createFloat(input.getFloat(offset + 1));
+            case DOUBLE -> outOps.createDouble(input.getDouble(offset + 1));
+            case STRING -> outOps.createString(readString(input, offset));
+            case LIST -> convertList(outOps, input);
+            case MAP -> convertMap(outOps, input);
+            case BYTE_ARRAY -> outOps.createByteList(byteArray(input, offset));
+            case INT_ARRAY -> outOps.createIntList(intArray(input, offset));
+            case LONG_ARRAY -> outOps.createLongList(longArray(input, offset));
+            default -> throw unknownTag(input, offset);
+        };
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(final ByteBuffer input) {
+        final int offset = input.position();
+        try {
+            return switch (input.get(offset)) {
+                case BYTE -> DataResult.success(input.get(offset + 1));
+                case SHORT -> DataResult.success((short) readSignedVarLong(input, offset + 1));
+                case INT -> DataResult.success((int) readSignedVarLong(input, offset + 1));
+                case LONG -> DataResult.success(readSignedVarLong(input, offset + 1));
+                case FLOAT -> DataResult.success(input.getFloat(offset + 1));
+                case DOUBLE -> DataResult.success(input.getDouble(offset + 1));
+                default -> DataResult.error(() -> "Not a number: " + describe(input));
+            };
+        } catch (final IndexOutOfBoundsException e) {
+            return malformed(input);
+        }
+    }
+
+    @Override
+    public ByteBuffer createNumeric(final Number i) {
+        if (i instanceof final Byte value) {
+            return createByte(value);
+        }
+        if (i instanceof final Short value) {
+            return createShort(value);
+        }
+        if (i instanceof final Integer value) {
+            return createInt(value);
+        }
+        if (i instanceof final Float value) {
+            return createFloat(value);
+        }
+        if (i instanceof final Double value) {
+            return createDouble(value);
+        }
+        final long value = i.longValue();
+        if (value == i.doubleValue()) {
+            return createLong(value);
+        }
+        return createDouble(i.doubleValue());
+    }
+
+    @Override
+    public ByteBuffer createByte(final byte value) {
+        return ByteBuffer.wrap(new byte[] {BYTE, value});
+    }
+
+    @Override
+    public ByteBuffer createShort(final short value) {
+        return createVarInt(SHORT, value);
+    }
+
+    @Override
+    public ByteBuffer createInt(final int value) {
+        return createVarInt(INT, value);
+    }
+
+    @Override
+    public ByteBuffer createLong(final long value) {
+        return createVarInt(LONG, value);
+    }
+
+    private static ByteBuffer createVarInt(final byte tag, final long value) {
+        final Output output = new Output(1 + 10);
+        output.writeByte(tag);
+        output.writeSignedVarLong(value);
+        return output.toBuffer();
+    }
+
+    @Override
+    public ByteBuffer createFloat(final float value) {
+        return ByteBuffer.allocate(1 + Float.BYTES).put(FLOAT).putFloat(value).flip();
+    }
+
+    @Override
+    public ByteBuffer createDouble(final double value) {
+        return ByteBuffer.allocate(1 + Double.BYTES).put(DOUBLE).putDouble(value).flip();
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(final ByteBuffer input) {
+        final int offset = input.position();
+        try {
+            return switch (input.get(offset)) {
+                case FALSE -> DataResult.success(false);
+                case TRUE -> DataResult.success(true);
+                // Like the default implementation, so that data from formats without booleans can be read
+                case BYTE -> DataResult.success(input.get(offset + 1) != 0);
+                default -> DataResult.error(() -> "Not a boolean: " + describe(input));
+            };
+        } catch (final IndexOutOfBoundsException e) {
+            return malformed(input);
+        }
+    }
+
+    @Override
+    public ByteBuffer createBoolean(final boolean value) {
+        return value ? TRUE_VALUE : FALSE_VALUE;
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final ByteBuffer input) {
+        final int offset = input.position();
+        if (input.get(offset) != STRING) {
+            return DataResult.error(() -> "Not a string: " + describe(input));
+        }
+        if (!bodyFits(input, offset)) {
+            return malformed(input);
+        }
+        return DataResult.success(readString(input, offset));
+    }
+
+    @Override
+    public ByteBuffer createString(final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        final Output output = new Output(1 + 5 + bytes.length);
+        output.writeByte(STRING);
+        output.writeVarInt(bytes.length);
+        output.write(bytes, 0, bytes.length);
+        return output.toBuffer();
+    }
+
+    @Override
+    public DataResult<ByteBuffer> mergeToList(final ByteBuffer list, final ByteBuffer value) {
+        return mergeToList(list, List.of(value));
+    }
+
+    @Override
+    public DataResult<ByteBuffer> mergeToList(final ByteBuffer list, final List<ByteBuffer> values) {
+        final int offset = list.position();
+        final byte tag = list.get(offset);
+        if (tag != LIST && tag != NULL) {
+            return DataResult.error(() -> "mergeToList called with not a list: " + describe(list), list);
+        }
+        final Entries entries = new Entries();
+        if (tag == LIST) {
+            entries.appendBody(list, offset);
+        }
+        for (final ByteBuffer value : values) {
+            entries.add(value);
+        }
+        return DataResult.success(entries.build(LIST));
+    }
+
+    @Override
+    public DataResult<ByteBuffer> mergeToMap(final ByteBuffer map, final ByteBuffer key, final ByteBuffer value) {
+        final int offset = map.position();
+        final byte tag = map.get(offset);
+        if (tag != MAP && tag != NULL) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + describe(map), map);
+        }
+        final Entries entries = new Entries();
+        if (tag == MAP) {
+            final int end = end(map, offset);
+            for (int i = firstEntry(map, offset); i < end; ) {
+                final int keySize = size(map, i);
+                final int valueSize = size(map, i + keySize);
+                if (!regionEquals(map, i, keySize, key)) {
+                    entries.appendRaw(map, i, keySize + valueSize);
+                }
+                i += keySize + valueSize;
+            }
+        }
+        entries.add(key, value);
+        return DataResult.success(entries.build(MAP));
+    }
+
+    @Override
+    public DataResult<ByteBuffer> get(final ByteBuffer input, final String key) {
+        final int offset = input.position();
+        if (input.get(offset) != MAP) {
+            return DataResult.error(() -> "Not a map: " + describe(input));
+        }
+        final ByteBuffer value;
+        try {
+            value = new BinaryMap(input, offset).get(key);
+        } catch (final IndexOutOfBoundsException | IllegalStateException e) {
+            return malformed(input);
+        }
+        if (value == null) {
+            return DataResult.error(() -> "No element " + key + " in the map " + describe(input));
+        }
+        return DataResult.success(value);
+    }
+
+    @Override
+    public DataResult<ByteBuffer> mergeToMap(final ByteBuffer map, final MapLike<ByteBuffer> values) {
+        final int offset = map.position();
+        final byte tag = map.get(offset);
+        if (tag != MAP && tag != NULL) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + describe(map), map);
+        }
+        final Entries entries = new Entries();
+        values.entries().forEach(entry -> entries.add(entry.getFirst(), entry.getSecond()));
+        return DataResult.success(entries.buildMap(tag == MAP ? map : null));
+    }
+
+    @Override
+    public DataResult<Stream<Pair<ByteBuffer, ByteBuffer>>> getMapValues(final ByteBuffer input) {
+        return getMap(input).map(MapLike::entries);
+    }
+
+    @Override
+    public DataResult<Consumer<BiConsumer<ByteBuffer, ByteBuffer>>> getMapEntries(final ByteBuffer input) {
+        final int offset = input.position();
+        if (input.get(offset) != MAP) {
+            return DataResult.error(() -> "Not a map: " + describe(input));
+        }
+        if (!entriesFit(input, offset, true)) {
+            return malformed(input);
+        }
+        return DataResult.success(consumer -> {
+            final int end = end(input, offset);
+            for (int i = firstEntry(input, offset); i < end; ) {
+                final int keySize = size(input, i);
+                final int valueSize = size(input, i + keySize);
+                consumer.accept(input.slice(i, keySize), input.slice(i + keySize, valueSize));
+                i += keySize + valueSize;
+            }
+        });
+    }
+
+    @Override
+    public DataResult<MapLike<ByteBuffer>> getMap(final ByteBuffer input) {
+        final int offset = input.position();
+        if (input.get(offset) != MAP) {
+            return DataResult.error(() -> "Not a map: " + describe(input));
+        }
+        if (!entriesFit(input, offset, true)) {
+            return malformed(input);
+        }
+        return DataResult.success(new BinaryMap(input, offset));
+    }
+
+    @Override
+    public ByteBuffer createMap(final Stream<Pair<ByteBuffer, ByteBuffer>> map) {
+        final Entries entries = new Entries();
+        map.forEach(entry -> entries.add(entry.getFirst(), entry.getSecond()));
+        return entries.buildMap(null);
+    }
+
+    @Override
+    public DataResult<Stream<ByteBuffer>> getStream(final ByteBuffer input) {
+        final int offset = input.position();
+        return switch (input.get(offset)) {
+            case LIST -> entriesFit(input, offset, false) ? DataResult.success(elements(input, offset)) : malformed(input);
+            case BYTE_ARRAY -> bodyFits(input, offset, 1)
+                ? DataResult.success(IntStream.range(0, readVarInt(input, offset + 1)).mapToObj(i -> createByte(input.get(arrayStart(input, offset) + i))))
+                : malformed(input);
+            case INT_ARRAY -> bodyFits(input, offset, Integer.BYTES) ? DataResult.success(intArray(input, offset).mapToObj(this::createInt)) : malformed(input);
+            case LONG_ARRAY -> bodyFits(input, offset, Long.BYTES) ? DataResult.success(longArray(input, offset).mapToObj(this::createLong)) : malformed(input);
+            default -> DataResult.error(() -> "Not a list: " + describe(input));
+        };
+    }
+
+    @Override
+    public DataResult<Consumer<Consumer<ByteBuffer>>> getList(final ByteBuffer input) {
+        final int offset = input.position();
+        if (input.get(offset) != LIST) {
+            return getStream(input).map(stream -> stream::forEach);
+        }
+        if (!entriesFit(input, offset, false)) {
+            return malformed(input);
+        }
+        return DataResult.success(consumer -> {
+            final int end = end(input, offset);
+            for (int i = firstEntry(input, offset); i < end; ) {
+                final int size = size(input, i);
+                consumer.accept(input.slice(i, size));
+                i += size;
+            }
+        });
+    }
+
+    @Override
+    public ByteBuffer createList(final Stream<ByteBuffer> input) {
+        final Entries entries = new Entries();
+        input.forEach(entries::add);
+        return entries.build(LIST);
+    }
+
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final ByteBuffer input) {
+        final int offset = input.position();
+        if (input.get(offset) == BYTE_ARRAY) {
+            return bodyFits(input, offset, 1) ? DataResult.success(byteArray(input, offset)) : malformed(input);
+        }
+        return DynamicOps.super.getByteBuffer(input);
+    }
+
+    @Override
+    public ByteBuffer createByteList(final ByteBuffer input) {
+        // Like the default implementation, the whole buffer is used regardless of its position and limit
+        final int length = input.capacity();
+        final Output output = new Output(1 + 5 + length);
+        output.writeByte(BYTE_ARRAY);
+        output.writeVarInt(length);
+        final int start = output.reserve(length);
+        input.get(0, output.bytes, start, length);
+        return output.toBuffer();
+    }
+
+    @Override
+    public DataResult<IntStream> getIntStream(final ByteBuffer input) {
+        final int offset = input.position();
+        if (input.get(offset) == INT_ARRAY) {
+            return bodyFits(input, offset, Integer.BYTES) ? DataResult.success(intArray(input, offset)) : malformed(input);
+        }
+        return DynamicOps.super.getIntStream(input);
+    }
+
+    @Override
+    public ByteBuffer createIntList(final IntStream input) {
+        final int[] values = input.toArray();
+        final Output output = new Output(1 + 5 + values.length * Integer.BYTES);
+        output.writeByte(INT_ARRAY);
+        output.writeVarInt(values.length);
+        final int start = output.reserve(values.length * Integer.BYTES);
+        ByteBuffer.wrap(output.bytes, start, values.length * Integer.BYTES).asIntBuffer().put(values);
+        return output.toBuffer();
+    }
+
+    @Override
+    public DataResult<LongStream> getLongStream(final ByteBuffer input) {
+        final int offset = input.position();
+        if (input.get(offset) == LONG_ARRAY) {
+            return bodyFits(input, offset, Long.BYTES) ? DataResult.success(longArray(input, offset)) : malformed(input);
+        }
+        return DynamicOps.super.getLongStream(input);
+    }
+
+    @Override
+    public ByteBuffer createLongList(final LongStream input) {
+        final long[] values = input.toArray();
+        final Output output = new Output(1 + 5 + values.length * Long.BYTES);
+        output.writeByte(LONG_ARRAY);
+        output.writeVarInt(values.length);
+        final int start = output.reserve(values.length * Long.BYTES);
+        ByteBuffer.wrap(output.bytes, start, values.length * Long.BYTES).asLongBuffer().put(values);
+        return output.toBuffer();
+    }
+
+    @Override
+    public ByteBuffer remove(final ByteBuffer input, final String key) {
+        final int offset = input.position();
+        if (input.get(offset) != MAP) {
+            return input;
+        }
+        final Entries entries = new Entries();
+        final int end = end(input, offset);
+        for (int i = firstEntry(input, offset); i < end; ) {
+            final int keySize = size(input, i);
+            final int valueSize = size(input, i + keySize);
+            if (!stringEquals(input, i, key)) {
+                entries.appendRaw(input, i, keySize + valueSize);
+            }
+            i += keySize + valueSize;
+        }
+        return entries.build(MAP);
+    }
+
+    @Override
+    public ListBuilder<ByteBuffer> listBuilder() {
+        return new ListBuilder.Builder<>(this);
+    }
+
+    @Override
+    public RecordBuilder<ByteBuffer> mapBuilder() {
+        return new BinaryRecordBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "Binary";
+    }
+
+    /**
+     * Formats a value for error messages.
+     */
+    private String describe(final ByteBuffer input) {
+        try {
+            return convertTo(JsonOps.INSTANCE, input).toString();
+        } catch (final RuntimeException e) {
+            return input.toString();
+        }
+    }
+
+    private static IllegalStateException unknownTag(final ByteBuffer input, final int offset) {
+        return new IllegalStateException("Unknown tag " + input.get(offset) + " at " + offset);
+    }
+
+    private <R> DataResult<R> malformed(final ByteBuffer input) {
+        return DataResult.error(() -> "Malformed value: " + describe(input));
+    }
+
+    /**
+     * Checks that the entries of a list or map exactly fill its body, so that views of them can be handed out without
+     * reading past the value. Nested values are only checked once they are read themselves.
+     */
+    private static boolean entriesFit(final ByteBuffer input, final int offset, final boolean pairs) {
+        if (!bodyFits(input, offset)) {
+            return false;
+        }
+        try {
+            final int end = end(input, offset);
+            int entries = 0;
+            int i = firstEntry(input, offset);
+            while (i < end) {
+                for (int part = pairs ? 2 : 1; part > 0; part--) {
+                    final int size = i < end ? size(input, i) : 0;
+                    if (size <= 0 || size > end - i) {
+                        return false;
+                    }
+                    i += size;
+                }
+                entries++;
+            }
+            return i == end && entries == count(input, offset);
+        } catch (final IndexOutOfBoundsException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private static boolean bodyFits(final ByteBuffer input, final int offset) {
+        return bodyFits(input, offset, 1);
+    }
+
+    /**
+     * Checks that a value with a length prefix ends within the input, where the length counts elements of the given width.
+     */
+    private static boolean bodyFits(final ByteBuffer input, final int offset, final int width) {
+        try {
+            final int length = readVarInt(input, offset + 1);
+            return length >= 0 && (long) length * width <= input.limit() - arrayStart(input, offset);
+        } catch (final IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the size of the whole encoded value starting at the offset, including its tag
+     */
+    private static int size(final ByteBuffer input, final int offset) {
+        return switch (input.get(offset)) {
+            case NULL, FALSE, TRUE -> 1;
+            case BYTE -> 2;
+            case SHORT, INT, LONG -> 1 + varIntSize(input, offset + 1);
+            case FLOAT -> 1 + Float.BYTES;
+            case DOUBLE -> 1 + Double.BYTES;
+            case STRING, LIST, MAP -> end(input, offset) - offset;
+            case BYTE_ARRAY -> arrayStart(input, offset) - offset + readVarInt(input, offset + 1);
+            case INT_ARRAY -> arrayStart(input, offset) - offset + readVarInt(input, offset + 1) * Integer.BYTES;
+            case LONG_ARRAY -> arrayStart(input, offset) - offset + readVarInt(input, offset + 1) * Long.BYTES;
+            default -> throw unknownTag(input, offset);
+        };
+    }
+
+    /**
+     * @return the end of a string, list or map, which store the size of their body after the tag
+     */
+    private static int end(final ByteBuffer input, final int offset) {
+        return offset + 1 + varIntSize(input, offset + 1) + readVarInt(input, offset + 1);
+    }
+
+    /**
+     * @return the start of the first entry of a list or map, after the entry count
+     */
+    private static int firstEntry(final ByteBuffer input, final int offset) {
+        final int count = offset + 1 + varIntSize(input, offset + 1);
+        return count + varIntSize(input, count);
+    }
+
+    private static int count(final ByteBuffer input, final int offset) {
+        return readVarInt(input, offset + 1 + varIntSize(input, offset + 1));
+    }
+
+    private static int arrayStart(final ByteBuffer input, final int offset) {
+        return offset + 1 + varIntSize(input, offset + 1);
+    }
+
+    private static String readString(final ByteBuffer input, final int offset) {
+        final int start = offset + 1 + varIntSize(input, offset + 1);
+        final int length = readVarInt(input, offset + 1);
+        if (input.hasArray()) {
+            return new String(input.array(), input.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        final byte[] bytes = new byte[length];
+        input.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the value at the offset to a string, without decoding it.
+     */
+    private static boolean stringEquals(final ByteBuffer input, final int offset, final String key) {
+        if (input.get(offset) != STRING) {
+            return false;
+        }
+        final int length = readVarInt(input, offset + 1);
+        if (length < key.length()) {
+            // Every character takes at least one byte
+            return false;
+        }
+        final int start = offset + 1 + varIntSize(input, offset + 1);
+        if (length == key.length()) {
+            for (int i = 0; i < length; i++) {
+                final char c = key.charAt(i);
+                if (c >= 0x80) {
+                    return readString(input, offset).equals(key);
+                }
+                if (input.get(start + i) != c) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return readString(input, offset).equals(key);
+    }
+
+    private static boolean regionEquals(final ByteBuffer input, final int offset, final int size, final ByteBuffer other) {
+        return size == other.remaining() && input.slice(offset, size).equals(other);
+    }
+
+    private static ByteBuffer byteArray(final ByteBuffer input, final int offset) {
+        return input.slice(arrayStart(input, offset), readVarInt(input, offset + 1)).asReadOnlyBuffer();
+    }
+
+    private static IntStream intArray(final ByteBuffer input, final int offset) {
+        final int start = arrayStart(input, offset);
+        return IntStream.range(0, readVarInt(input, offset + 1)).map(i -> input.getInt(start + i * Integer.BYTES));
+    }
+
+    private static LongStream longArray(final ByteBuffer input, final int offset) {
+        final int start = arrayStart(input, offset);
+        return IntStream.range(0, readVarInt(input, offset + 1)).mapToLong(i -> input.getLong(start + i * Long.BYTES));
+    }
+
+    private static Stream<ByteBuffer> elements(final ByteBuffer input, final int offset) {
+        return stream(input, offset, (input1, i) -> input1.slice(i, size(input1, i)), false);
+    }
+
+    /**
+     * Iterates over the entries of a list or map without decoding them.
+     */
+    private static <E> Stream<E> stream(final ByteBuffer input, final int offset, final EntryReader<E> reader, final boolean pairs) {
+        final int end = end(input, offset);
+        final int first = firstEntry(input, offset);
+        final Spliterator<E> spliterator = new Spliterators.AbstractSpliterator<>(count(input, offset), Spliterator.ORDERED | Spliterator.SIZED) {
+            private int next = first;
+
+            @Override
+            public boolean tryAdvance(final Consumer<? super E> action) {
+                if (next >= end) {
+                    return false;
+                }
+                final int current = next;
+                next += size(input, current);
+                if (pairs) {
+                    next += size(input, next);
+                }
+                action.accept(reader.read(input, current));
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    @FunctionalInterface
+    private interface EntryReader<E> {
+        E read(ByteBuffer input, int offset);
+    }
+
+    private static int readVarInt(final ByteBuffer input, final int offset) {
+        return (int) readVarLong(input, offset);
+    }
+
+    private static long readVarLong(final ByteBuffer input, final int offset) {
+        long value = 0;
+        for (int i = 0; ; i++) {
+            final byte b = input.get(offset + i);
+            value |= (long) (b & 0x7F) << (i * 7);
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long readSignedVarLong(final ByteBuffer input, final int offset) {
+        final long value = readVarLong(input, offset);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varIntSize(final ByteBuffer input, final int offset) {
+        int size = 1;
+        while (input.get(offset + size - 1) < 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static int varIntSize(final long value) {
+        return value == 0 ? 1 : (Long.SIZE - Long.numberOfLeadingZeros(value) + 6) / 7;
+    }
+
+    /**
+     * Maps a file one region at a time. Regions start at a value boundary, and a value that would cross the end of a
+     * region starts the next one instead.
+     */
+    private static final class MappedValues extends Spliterators.AbstractSpliterator<ByteBuffer> {
+        private final FileChannel channel;
+        private final int maxRegion;
+        private final long fileSize;
+        private long regionStart;
+        private ByteBuffer region = ByteBuffer.allocate(0);
+
+        private MappedValues(final FileChannel channel, final int maxRegion) throws IOException {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.channel = channel;
+            this.maxRegion = maxRegion;
+            fileSize = channel.size();
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super ByteBuffer> action) {
+            final long position = regionStart + region.position();
+            if (position >= fileSize) {
+                return false;
+            }
+            ByteBuffer value = tryRead(region);
+            // Start a new region at this value, unless the region already starts here
+            if (value == null && (region.position() > 0 || region.limit() == 0)) {
+                map(position);
+                value = tryRead(region);
+            }
+            if (value == null) {
+                throw new UncheckedIOException(new EOFException("Truncated or oversized value at " + position + " in a file of " + fileSize + " bytes"));
+            }
+            action.accept(value);
+            return true;
+        }
+
+        private void map(final long start) {
+            try {
+                region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(maxRegion, fileSize - start));
+                regionStart = start;
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private final class BinaryMap implements MapLike<ByteBuffer> {
+        private final ByteBuffer input;
+        private final int offset;
+
+        private BinaryMap(final ByteBuffer input, final int offset) {
+            this.input = input;
+            this.offset = offset;
+        }
+
+        @Nullable
+        @Override
+        public ByteBuffer get(final ByteBuffer key) {
+            final int end = end(input, offset);
+            for (int i = firstEntry(input, offset); i < end; ) {
+                final int keySize = size(input, i);
+                final int valueSize = size(input, i + keySize);
+                if (regionEquals(input, i, keySize, key)) {
+                    return valueOrNull(i + keySize, valueSize);
+                }
+                i += keySize + valueSize;
+            }
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public ByteBuffer get(final String key) {
+            final int end = end(input, offset);
+            for (int i = firstEntry(input, offset); i < end; ) {
+                final int keySize = size(input, i);
+                if (stringEquals(input, i, key)) {
+                    return valueOrNull(i + keySize, size(input, i + keySize));
+                }
+                i += keySize;
+                i += size(input, i);
+            }
+            return null;
+        }
+
+        @Nullable
+        private ByteBuffer valueOrNull(final int valueOffset, final int valueSize) {
+            return input.get(valueOffset) == NULL ? null : input.slice(valueOffset, valueSize);
+        }
+
+        @Override
+        public Stream<Pair<ByteBuffer, ByteBuffer>> entries() {
+            return stream(input, offset, (input, i) -> {
+                final int keySize = size(input, i);
+                return Pair.of(input.slice(i, keySize), input.slice(i + keySize, size(input, i + keySize)));
+            }, true);
+        }
+
+        @Override
+        public String toString() {
+            return "MapLike[" + describe(input) + "]";
+        }
+    }
+
+    /**
+     * Encoded entries of a list or map, waiting for their header.
+     */
+    private static final class Entries {
+        private final Output body = new Output(64);
+        private int count;
+        // Key offsets within the body, only tracked for maps
+        private int[] keys = new int[8];
+
+        private void add(final ByteBuffer value) {
+            body.write(value);
+            count++;
+        }
+
+        private void add(final ByteBuffer key, final ByteBuffer value) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count] = body.length;
+            body.write(key);
+            body.write(value);
+            count++;
+        }
+
+        private void appendRaw(final ByteBuffer input, final int offset, final int size) {
+            final int start = body.reserve(size);
+            input.get(offset, body.bytes, start, size);
+            count++;
+        }
+
+        /**
+         * Appends the entries of an encoded list or map.
+         */
+        private void appendBody(final ByteBuffer input, final int offset) {
+            final int first = firstEntry(input, offset);
+            final int size = end(input, offset) - first;
+            final int start = body.reserve(size);
+            input.get(first, body.bytes, start, size);
+            count += count(input, offset);
+        }
+
+        /**
+         * Builds a map, with entries from the prefix first. Later entries replace earlier ones with the same key.
+         */
+        private ByteBuffer buildMap(@Nullable final ByteBuffer prefix) {
+            if (prefix == null && !hasDuplicateKeys()) {
+                return build(MAP);
+            }
+            final ByteBuffer added = ByteBuffer.wrap(body.bytes, 0, body.length);
+            final Set<ByteBuffer> seen = new HashSet<>(count);
+            final Entries result = new Entries();
+            // Walk the added entries backwards, so that the last of any duplicates wins
+            final int[] order = new int[count];
+            int kept = 0;
+            for (int i = count - 1; i >= 0; i--) {
+                final int keySize = size(added, keys[i]);
+                if (seen.add(added.slice(keys[i], keySize))) {
+                    order[kept++] = i;
+                }
+            }
+            if (prefix != null) {
+                final int offset = prefix.position();
+                final int end = end(prefix, offset);
+                for (int i = firstEntry(prefix, offset); i < end; ) {
+                    final int keySize = size(prefix, i);
+                    final int valueSize = size(prefix, i + keySize);
+                    if (!seen.contains(prefix.slice(i, keySize))) {
+                        result.appendRaw(prefix, i, keySize + valueSize);
+                    }
+                    i += keySize + valueSize;
+                }
+            }
+            for (int i = kept - 1; i >= 0; i--) {
+                final int key = keys[order[i]];
+                final int keySize = size(added, key);
+                result.appendRaw(added, key, keySize + size(added, key + keySize));
+            }
+            return result.build(MAP);
+        }
+
+        private boolean hasDuplicateKeys() {
+            if (count < 2) {
+                return false;
+            }
+            final ByteBuffer added = ByteBuffer.wrap(body.bytes, 0, body.length);
+            if (count > MapLikes.MAX_PAIRWISE_KEY_CHECK) {
+                final Set<ByteBuffer> seen = new HashSet<>(count);
+                for (int i = 0; i < count; i++) {
+                    if (!seen.add(added.slice(keys[i], size(added, keys[i])))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                final int size = size(added, keys[i]);
+                for (int j = i + 1; j < count; j++) {
+                    if (size(added, keys[j]) == size && Arrays.equals(body.bytes, keys[i], keys[i] + size, body.bytes, keys[j], keys[j] + size)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private ByteBuffer build(final byte tag) {
+            final int bodySize = varIntSize(count) + body.length;
+            final Output output = new Output(1 + varIntSize(bodySize) + bodySize);
+            output.writeByte(tag);
+            output.writeVarInt(bodySize);
+            output.writeVarInt(count);
+            output.write(body.bytes, 0, body.length);
+            return output.toBuffer();
+        }
+    }
+
+    private static final class Output {
+        private byte[] bytes;
+        private int length;
+
+        private Output(final int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        /**
+         * Makes room for {@code size} bytes, which the caller is expected to fill in.
+         *
+         * @return the start of the reserved bytes
+         */
+        private int reserve(final int size) {
+            final int start = length;
+            final int required = Math.addExact(length, size);
+            if (required > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+            }
+            length = required;
+            return start;
+        }
+
+        private void writeByte(final int value) {
+            final int start = reserve(1);
+            bytes[start] = (byte) value;
+        }
+
+        private void writeVarInt(final int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeSignedVarLong(final long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        private void write(final byte[] source, final int offset, final int size) {
+            final int start = reserve(size);
+            System.arraycopy(source, offset, bytes, start, size);
+        }
+
+        private void write(final ByteBuffer value) {
+            final int size = value.remaining();
+            final int start = reserve(size);
+            value.get(value.position(), bytes, start, size);
+        }
+
+        private ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(bytes, 0, length).slice();
+        }
+    }
+
+    private final class BinaryRecordBuilder extends RecordBuilder.AbstractUniversalBuilder<ByteBuffer, Entries> {
+        private BinaryRecordBuilder() {
+            super(BinaryOps.this);
+        }
+
+        @Override
+        protected Entries initBuilder() {
+            return new Entries();
+        }
+
+        @Override
+        protected Entries append(final ByteBuffer key, final ByteBuffer value, final Entries builder) {
+            builder.add(key, value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<ByteBuffer> build(final Entries builder, final ByteBuffer prefix) {
+            final byte tag = prefix.get(prefix.position());
+            if (tag != MAP && tag != NULL) {
+                return DataResult.error(() -> "mergeToMap called with not a map: " + describe(prefix), prefix);
+            }
+            return DataResult.success(builder.buildMap(tag == MAP ? prefix : null));
+        }
+    }
+}
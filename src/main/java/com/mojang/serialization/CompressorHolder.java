@@ -2,16 +2,38 @@
 // Licensed under the MIT license.
 package com.mojang.serialization;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
-
-import java.util.Map;
+import java.util.Arrays;
 
 public abstract class CompressorHolder implements Compressable {
-    private final Map<DynamicOps<?>, KeyCompressor<?>> compressors = new Object2ObjectArrayMap<>();
+    private static final Entry<?>[] NO_COMPRESSORS = new Entry<?>[0];
+
+    // Copied on write, so that lookups from concurrent encoders and decoders never lock
+    private volatile Entry<?>[] compressors = NO_COMPRESSORS;
+
+    private record Entry<T>(DynamicOps<T> ops, KeyCompressor<T> compressor) {
+    }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> KeyCompressor<T> compressor(final DynamicOps<T> ops) {
-        return (KeyCompressor<T>) compressors.computeIfAbsent(ops, k -> new KeyCompressor<>(ops, keys(ops)));
+        for (final Entry<?> entry : compressors) {
+            if (entry.ops().equals(ops)) {
+                return (KeyCompressor<T>) entry.compressor();
+            }
+        }
+        // Build outside the lock, as collecting keys walks every nested codec
+        final KeyCompressor<T> compressor = new KeyCompressor<>(ops, keys(ops));
+        synchronized (this) {
+            final Entry<?>[] current = compressors;
+            for (final Entry<?> entry : current) {
+                if (entry.ops().equals(ops)) {
+                    return (KeyCompressor<T>) entry.compressor();
+                }
+            }
+            final Entry<?>[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = new Entry<>(ops, compressor);
+            compressors = updated;
+        }
+        return compressor;
     }
 }
@@ -6,7 +6,9 @@ import com.mojang.datafixers.kinds.App;
 import com.mojang.datafixers.kinds.Applicative;
 import com.mojang.datafixers.kinds.K1;
 import com.mojang.datafixers.util.Function3;
+import com.mojang.datafixers.util.Unit;
 
+import javax.annotation.Nullable;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -38,7 +40,8 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
     }
 
     static <R> DataResult<R> success(final R result, final Lifecycle lifecycle) {
-        return new Success<>(result, lifecycle);
+        final Success<R> shared = Success.shared(result, lifecycle);
+        return shared != null ? shared : new Success<>(result, lifecycle);
     }
 
     static <R> DataResult<R> error(final Supplier<String> message, final R partialResult, final Lifecycle lifecycle) {
@@ -107,6 +110,10 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
     }
 
     default <R2, S> DataResult<S> apply2stable(final BiFunction<R, R2, S> function, final DataResult<R2> second) {
+        if (this instanceof final Success<R> first && second instanceof final Success<R2> other) {
+            // A stable function adds nothing to the lifecycle of its arguments
+            return success(function.apply(first.value, other.value), first.lifecycle.add(other.lifecycle));
+        }
         final Applicative<DataResult.Mu, DataResult.Instance.Mu> instance = instance();
         final DataResult<BiFunction<R, R2, S>> f = unbox(instance.point(function)).setLifecycle(Lifecycle.stable());
         return unbox(instance.ap2(f, this, second));
@@ -135,6 +142,33 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
     }
 
     record Success<R>(R value, Lifecycle lifecycle) implements DataResult<R> {
+        private static final Success<Unit> STABLE_UNIT = new Success<>(Unit.INSTANCE, Lifecycle.stable());
+        private static final Success<Unit> EXPERIMENTAL_UNIT = new Success<>(Unit.INSTANCE, Lifecycle.experimental());
+        private static final Success<Optional<?>> STABLE_EMPTY = new Success<>(Optional.empty(), Lifecycle.stable());
+        private static final Success<Optional<?>> EXPERIMENTAL_EMPTY = new Success<>(Optional.empty(), Lifecycle.experimental());
+
+        /**
+         * Results are immutable, so the most common values can share an instance.
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        private static <R> Success<R> shared(final R value, final Lifecycle lifecycle) {
+            if (value == Unit.INSTANCE) {
+                if (lifecycle == Lifecycle.stable()) {
+                    return (Success<R>) STABLE_UNIT;
+                } else if (lifecycle == Lifecycle.experimental()) {
+                    return (Success<R>) EXPERIMENTAL_UNIT;
+                }
+            } else if (value == Optional.empty()) {
+                if (lifecycle == Lifecycle.stable()) {
+                    return (Success<R>) STABLE_EMPTY;
+                } else if (lifecycle == Lifecycle.experimental()) {
+                    return (Success<R>) EXPERIMENTAL_EMPTY;
+                }
+            }
+            return null;
+        }
+
         @Override
         public Optional<R> result() {
             return Optional.of(value);
@@ -171,8 +205,13 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public <T> DataResult<T> map(final Function<? super R, ? extends T> function) {
-            return new Success<>(function.apply(value), lifecycle);
+            final T result = function.apply(value);
+            if (result == value) {
+                return (DataResult<T>) this;
+            }
+            return success(result, lifecycle);
         }
 
         @Override
@@ -205,7 +244,7 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
         public <R2> DataResult<R2> ap(final DataResult<Function<R, R2>> functionResult) {
             final Lifecycle combinedLifecycle = lifecycle.add(functionResult.lifecycle());
             if (functionResult instanceof final Success<Function<R, R2>> funcSuccess) {
-                return new Success<>(funcSuccess.value.apply(value), combinedLifecycle);
+                return success(funcSuccess.value.apply(value), combinedLifecycle);
             } else if (functionResult instanceof final Error<Function<R, R2>> funcError) {
                 return new Error<>(funcError.messageSupplier, funcError.partialValue.map(f -> f.apply(value)), combinedLifecycle);
             } else {
@@ -233,7 +272,7 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
             if (this.lifecycle.equals(lifecycle)) {
                 return this;
             }
-            return new Success<>(value, lifecycle);
+            return success(value, lifecycle);
         }
 
         @Override
@@ -304,6 +343,17 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
             return new Error<>(messageSupplier, partialValue.map(function), lifecycle);
         }
 
+        /**
+         * The same error with no partial result, as passed on by decoders in {@link DynamicOps#failFast} mode.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Error<T> withoutPartial() {
+            if (partialValue.isEmpty()) {
+                return (Error<T>) this;
+            }
+            return new Error<>(messageSupplier, Optional.empty(), lifecycle);
+        }
+
         @Override
         public <T> T mapOrElse(final Function<? super R, ? extends T> successFunction, final Function<? super Error<R>, ? extends T> errorFunction) {
             return errorFunction.apply(this);
@@ -427,14 +477,14 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
             final DataResult<B> rb = unbox(b);
 
             // for less recursion
-            if (fr.result().isPresent()
-                && ra.result().isPresent()
-                && rb.result().isPresent()
+            if (fr instanceof final Success<BiFunction<A, B, R>> f
+                && ra instanceof final Success<A> sa
+                && rb instanceof final Success<B> sb
             ) {
-                return new Success<>(fr.result().get().apply(
-                    ra.result().get(),
-                    rb.result().get()
-                ), fr.lifecycle().add(ra.lifecycle()).add(rb.lifecycle()));
+                return success(f.value.apply(
+                    sa.value,
+                    sb.value
+                ), f.lifecycle.add(sa.lifecycle).add(sb.lifecycle));
             }
 
             return Applicative.super.ap2(func, a, b);
@@ -448,16 +498,16 @@ public sealed interface DataResult<R> extends App<DataResult.Mu, R> permits Data
             final DataResult<T3> dr3 = unbox(t3);
 
             // for less recursion
-            if (fr.result().isPresent()
-                && dr1.result().isPresent()
-                && dr2.result().isPresent()
-                && dr3.result().isPresent()
+            if (fr instanceof final Success<Function3<T1, T2, T3, R>> f
+                && dr1 instanceof final Success<T1> s1
+                && dr2 instanceof final Success<T2> s2
+                && dr3 instanceof final Success<T3> s3
             ) {
-                return new Success<>(fr.result().get().apply(
-                    dr1.result().get(),
-                    dr2.result().get(),
-                    dr3.result().get()
-                ), fr.lifecycle().add(dr1.lifecycle()).add(dr2.lifecycle()).add(dr3.lifecycle()));
+                return success(f.value.apply(
+                    s1.value,
+                    s2.value,
+                    s3.value
+                ), f.lifecycle.add(s1.lifecycle).add(s2.lifecycle).add(s3.lifecycle));
             }
 
             return Applicative.super.ap3(func, t1, t2, t3);
@@ -137,11 +137,27 @@ public class Dynamic<T> extends DynamicLike<T> {
         return map(v -> ops.remove(v, key));
     }
 
+    /**
+     * Copies the whole map, so prefer {@link #setAll} when setting several fields.
+     */
     @CheckReturnValue
     public Dynamic<T> set(final String key, final Dynamic<?> value) {
         return map(v -> ops.set(v, key, value.cast(ops)));
     }
 
+    /**
+     * Sets several fields in a single merge. Chained {@link #set} calls copy the whole map once per field.
+     */
+    @CheckReturnValue
+    public Dynamic<T> setAll(final Map<String, ? extends Dynamic<?>> values) {
+        if (values.isEmpty()) {
+            return this;
+        }
+        final ImmutableMap.Builder<T, T> converted = ImmutableMap.builderWithExpectedSize(values.size());
+        values.forEach((key, value) -> converted.put(ops.createString(key), value.cast(ops)));
+        return map(v -> ops.mergeToMap(v, converted.build()).result().orElse(v));
+    }
+
     @CheckReturnValue
     public Dynamic<T> update(final String key, final Function<Dynamic<?>, Dynamic<?>> function) {
         return map(v -> ops.update(v, key, value -> function.apply(new Dynamic<>(ops, value)).cast(ops)));
@@ -167,12 +183,29 @@ public class Dynamic<T> extends DynamicLike<T> {
 
     @CheckReturnValue
     public Dynamic<T> replaceField(final String oldFieldName, final String newFieldName, final Optional<? extends Dynamic<?>> newValue) {
-        return remove(oldFieldName).setFieldIfPresent(newFieldName, newValue);
+        if (newValue.isEmpty()) {
+            return remove(oldFieldName);
+        }
+        return replace(oldFieldName, newFieldName, newValue.get());
     }
 
     @CheckReturnValue
     public Dynamic<T> renameAndFixField(final String oldFieldName, final String newFieldName, final UnaryOperator<Dynamic<?>> fixer) {
-        return remove(oldFieldName).setFieldIfPresent(newFieldName, get(oldFieldName).result().map(fixer));
+        return replaceField(oldFieldName, newFieldName, get(oldFieldName).result().map(fixer));
+    }
+
+    /**
+     * Removes a field and sets another one while copying the map once, where {@link #remove} and {@link #set} copy it twice.
+     */
+    private Dynamic<T> replace(final String oldFieldName, final String newFieldName, final Dynamic<?> newValue) {
+        final T oldKey = ops.createString(oldFieldName);
+        final T newKey = ops.createString(newFieldName);
+        final T castValue = newValue.cast(ops);
+        return map(v -> ops.getMapValues(v)
+            .map(entries -> ops.createMap(Stream.concat(entries.filter(entry -> !oldKey.equals(entry.getFirst())), Stream.of(Pair.of(newKey, castValue)))))
+            // Not a map, which set may still turn into one
+            .result().orElseGet(() -> ops.set(ops.remove(v, oldFieldName), newFieldName, castValue))
+        );
     }
 
     @Override
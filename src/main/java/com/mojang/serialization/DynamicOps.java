@@ -6,6 +6,7 @@ import com.google.common.collect.ImmutableMap;
 import com.mojang.datafixers.util.Pair;
 
 import java.nio.ByteBuffer;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -14,7 +15,6 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
@@ -129,7 +129,7 @@ public interface DynamicOps<T> {
     default DataResult<MapLike<T>> getMap(final T input) {
         return getMapValues(input).flatMap(s -> {
             try {
-                return DataResult.success(MapLike.forMap(s.collect(Pair.toMap()), this));
+                return DataResult.success(MapLike.forEntries(s.toList(), this));
             } catch (final IllegalStateException e) {
                 return DataResult.error(() -> "Error while building map: " + e.getMessage());
             }
@@ -150,15 +150,16 @@ public interface DynamicOps<T> {
 
     default DataResult<ByteBuffer> getByteBuffer(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = stream.collect(Collectors.toList());
-            if (list.stream().allMatch(element -> getNumberValue(element).isSuccess())) {
-                final ByteBuffer buffer = ByteBuffer.wrap(new byte[list.size()]);
-                for (int i = 0; i < list.size(); i++) {
-                    buffer.put(i, getNumberValue(list.get(i)).result().get().byteValue());
+            final List<T> list = stream.toList();
+            final byte[] bytes = new byte[list.size()];
+            for (int i = 0; i < bytes.length; i++) {
+                final DataResult<Number> value = getNumberValue(list.get(i));
+                if (value.isError()) {
+                    return DataResult.error(() -> "Some elements are not bytes: " + input);
                 }
-                return DataResult.success(buffer);
+                bytes[i] = value.getOrThrow().byteValue();
             }
-            return DataResult.error(() -> "Some elements are not bytes: " + input);
+            return DataResult.success(ByteBuffer.wrap(bytes));
         });
     }
 
@@ -168,11 +169,15 @@ public interface DynamicOps<T> {
 
     default DataResult<IntStream> getIntStream(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = stream.toList();
-            if (list.stream().allMatch(element -> getNumberValue(element).isSuccess())) {
-                return DataResult.success(list.stream().mapToInt(element -> getNumberValue(element).getOrThrow().intValue()));
+            final IntStream.Builder builder = IntStream.builder();
+            for (final Iterator<T> iterator = stream.iterator(); iterator.hasNext(); ) {
+                final DataResult<Number> value = getNumberValue(iterator.next());
+                if (value.isError()) {
+                    return DataResult.error(() -> "Some elements are not ints: " + input);
+                }
+                builder.add(value.getOrThrow().intValue());
             }
-            return DataResult.error(() -> "Some elements are not ints: " + input);
+            return DataResult.success(builder.build());
         });
     }
 
@@ -182,11 +187,15 @@ public interface DynamicOps<T> {
 
     default DataResult<LongStream> getLongStream(final T input) {
         return getStream(input).flatMap(stream -> {
-            final List<T> list = stream.toList();
-            if (list.stream().allMatch(element -> getNumberValue(element).isSuccess())) {
-                return DataResult.success(list.stream().mapToLong(element -> getNumberValue(element).getOrThrow().longValue()));
+            final LongStream.Builder builder = LongStream.builder();
+            for (final Iterator<T> iterator = stream.iterator(); iterator.hasNext(); ) {
+                final DataResult<Number> value = getNumberValue(iterator.next());
+                if (value.isError()) {
+                    return DataResult.error(() -> "Some elements are not longs: " + input);
+                }
+                builder.add(value.getOrThrow().longValue());
             }
-            return DataResult.error(() -> "Some elements are not longs: " + input);
+            return DataResult.success(builder.build());
         });
     }
 
@@ -200,6 +209,14 @@ public interface DynamicOps<T> {
         return false;
     }
 
+    /**
+     * Whether decoders should stop at the first error. Their errors then carry only the message of the first failure,
+     * and no partial result. See {@link FailFastOps} to enable this for any ops.
+     */
+    default boolean failFast() {
+        return false;
+    }
+
     default DataResult<T> get(final T input, final String key) {
         return getGeneric(input, createString(key));
     }
@@ -0,0 +1,36 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+/**
+ * Wraps ops so that decoders stop at the first error, for callers that only care whether decoding succeeded, such as
+ * when rejecting untrusted input. Values are shared with the delegate.
+ */
+public final class FailFastOps<T> extends DelegatingOps<T> {
+    private FailFastOps(final DynamicOps<T> delegate) {
+        super(delegate);
+    }
+
+    public static <T> DynamicOps<T> of(final DynamicOps<T> ops) {
+        return ops.failFast() ? ops : new FailFastOps<>(ops);
+    }
+
+    @Override
+    public boolean failFast() {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <U> U convertTo(final DynamicOps<U> outOps, final T input) {
+        if (outOps instanceof final FailFastOps<U> other && other.delegate == delegate) {
+            return (U) input;
+        }
+        return delegate.convertTo(outOps, input);
+    }
+
+    @Override
+    public String toString() {
+        return "FailFast[" + delegate + "]";
+    }
+}
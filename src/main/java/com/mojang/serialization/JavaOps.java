@@ -12,6 +12,7 @@ import it.unimi.dsi.fastutil.longs.LongList;
 
 import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -56,13 +57,13 @@ public class JavaOps implements DynamicOps<Object> {
             return convertMap(outOps, input);
         }
         if (input instanceof final ByteList value) {
-            return outOps.createByteList(ByteBuffer.wrap(value.toByteArray()));
+            return outOps.createByteList(view(value));
         }
         if (input instanceof final IntList value) {
-            return outOps.createIntList(value.intStream());
+            return outOps.createIntList(stream(value));
         }
         if (input instanceof final LongList value) {
-            return outOps.createLongList(value.longStream());
+            return outOps.createLongList(stream(value));
         }
         if (input instanceof List) {
             return convertList(outOps, input);
@@ -348,11 +349,24 @@ public class JavaOps implements DynamicOps<Object> {
     @Override
     public DataResult<ByteBuffer> getByteBuffer(final Object input) {
         if (input instanceof final ByteList value) {
+            // Callers own the result and may write to it, so it can't share the list's array
             return DataResult.success(ByteBuffer.wrap(value.toByteArray()));
         }
         return DataResult.error(() -> "Not a byte list: " + input);
     }
 
+    /**
+     * Views the contents of a byte list without copying them, if it is backed by an array, for handing over to
+     * {@link DynamicOps#createByteList}. The view is read-only, since values must not be modified, and its capacity is
+     * the size of the list, as expected by {@link #createByteList}.
+     */
+    private static ByteBuffer view(final ByteList list) {
+        if (list instanceof final ByteArrayList arrayList) {
+            return ByteBuffer.wrap(arrayList.elements(), 0, arrayList.size()).slice().asReadOnlyBuffer();
+        }
+        return ByteBuffer.wrap(list.toByteArray()).asReadOnlyBuffer();
+    }
+
     @Override
     public Object createByteList(final ByteBuffer input) {
         // Set .limit to .capacity to match default method
@@ -366,11 +380,18 @@ public class JavaOps implements DynamicOps<Object> {
     @Override
     public DataResult<IntStream> getIntStream(final Object input) {
         if (input instanceof final IntList value) {
-            return DataResult.success(value.intStream());
+            return DataResult.success(stream(value));
         }
         return DataResult.error(() -> "Not an int list: " + input);
     }
 
+    private static IntStream stream(final IntList list) {
+        if (list instanceof final IntArrayList arrayList) {
+            return Arrays.stream(arrayList.elements(), 0, arrayList.size());
+        }
+        return list.intStream();
+    }
+
     @Override
     public Object createIntList(final IntStream input) {
         return IntArrayList.toList(input);
@@ -379,11 +400,18 @@ public class JavaOps implements DynamicOps<Object> {
     @Override
     public DataResult<LongStream> getLongStream(final Object input) {
         if (input instanceof final LongList value) {
-            return DataResult.success(value.longStream());
+            return DataResult.success(stream(value));
         }
         return DataResult.error(() -> "Not a long list: " + input);
     }
 
+    private static LongStream stream(final LongList list) {
+        if (list instanceof final LongArrayList arrayList) {
+            return Arrays.stream(arrayList.elements(), 0, arrayList.size());
+        }
+        return list.longStream();
+    }
+
     @Override
     public Object createLongList(final LongStream input) {
         return LongArrayList.toList(input);
@@ -12,6 +12,7 @@ import com.mojang.datafixers.util.Pair;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,8 @@ import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -319,6 +322,97 @@ public class JsonOps implements DynamicOps<JsonElement> {
         return result;
     }
 
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final JsonElement input) {
+        if (!(input instanceof final JsonArray array)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final byte[] values = new byte[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            final Number value = asNumber(array.get(i));
+            if (value == null) {
+                return DataResult.error(() -> "Some elements are not bytes: " + input);
+            }
+            values[i] = value.byteValue();
+        }
+        return DataResult.success(ByteBuffer.wrap(values));
+    }
+
+    @Override
+    public JsonElement createByteList(final ByteBuffer input) {
+        final JsonArray result = new JsonArray(input.capacity());
+        for (int i = 0; i < input.capacity(); i++) {
+            result.add(input.get(i));
+        }
+        return result;
+    }
+
+    @Override
+    public DataResult<IntStream> getIntStream(final JsonElement input) {
+        if (!(input instanceof final JsonArray array)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final int[] values = new int[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            final Number value = asNumber(array.get(i));
+            if (value == null) {
+                return DataResult.error(() -> "Some elements are not ints: " + input);
+            }
+            values[i] = value.intValue();
+        }
+        return DataResult.success(IntStream.of(values));
+    }
+
+    @Override
+    public JsonElement createIntList(final IntStream input) {
+        final JsonArray result = new JsonArray();
+        input.forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public DataResult<LongStream> getLongStream(final JsonElement input) {
+        if (!(input instanceof final JsonArray array)) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        final long[] values = new long[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            final Number value = asNumber(array.get(i));
+            if (value == null) {
+                return DataResult.error(() -> "Some elements are not longs: " + input);
+            }
+            values[i] = value.longValue();
+        }
+        return DataResult.success(LongStream.of(values));
+    }
+
+    @Override
+    public JsonElement createLongList(final LongStream input) {
+        final JsonArray result = new JsonArray();
+        input.forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Same as {@link #getNumberValue}, without wrapping the result.
+     */
+    @Nullable
+    private Number asNumber(final JsonElement input) {
+        if (input instanceof final JsonPrimitive primitive) {
+            if (primitive.isNumber()) {
+                return primitive.getAsNumber();
+            }
+            if (compressed && primitive.isString()) {
+                try {
+                    return Integer.parseInt(primitive.getAsString());
+                } catch (final NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public JsonElement remove(final JsonElement input, final String key) {
         if (input instanceof JsonObject) {
@@ -428,7 +522,14 @@ public class JsonOps implements DynamicOps<JsonElement> {
             if (prefix == null || prefix instanceof JsonNull) {
                 return DataResult.success(builder);
             }
-            if (prefix instanceof JsonObject) {
+            if (prefix instanceof final JsonObject object) {
+                // The builder is only reachable from here, so it can be handed out without copying
+                if (object.size() == 0) {
+                    return DataResult.success(builder);
+                }
+                if (builder.size() == 0) {
+                    return DataResult.success(prefix);
+                }
                 final JsonObject result = new JsonObject();
                 for (final Map.Entry<String, JsonElement> entry : prefix.getAsJsonObject().entrySet()) {
                     result.add(entry.getKey(), entry.getValue());
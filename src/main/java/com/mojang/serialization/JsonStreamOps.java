@@ -0,0 +1,647 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.mojang.datafixers.util.Pair;
+import it.unimi.dsi.fastutil.bytes.ByteList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongList;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Decodes JSON straight from a {@link JsonReader}, without building a Gson {@link com.google.gson.JsonElement} tree.
+ * <p>
+ * Objects and arrays are read into a flat tape of tokens, and exposed to decoders as {@link Node} views into that tape.
+ * Every other value, including anything created through these ops, uses the same representation as {@link JavaOps}.
+ * {@link #parseElements} goes further and only keeps a single element of a top-level array in memory at a time.
+ */
+public final class JsonStreamOps implements DynamicOps<Object> {
+    public static final JsonStreamOps INSTANCE = new JsonStreamOps();
+
+    private static final DynamicOps<Object> JAVA = JavaOps.INSTANCE;
+
+    private JsonStreamOps() {
+    }
+
+    /**
+     * Reads the next value from the reader.
+     */
+    @Nullable
+    public Object read(final JsonReader reader) throws IOException {
+        final Tape tape = new Tape();
+        tape.read(reader);
+        return tape.value(0);
+    }
+
+    public <A> DataResult<A> parse(final Decoder<A> decoder, final JsonReader reader) {
+        final Object value;
+        try {
+            value = read(reader);
+        } catch (final IOException e) {
+            return DataResult.error(() -> "Failed to read JSON: " + e.getMessage());
+        }
+        return decoder.parse(this, value);
+    }
+
+    /**
+     * Lazily decodes the elements of the array at the reader's position, reading each one only when it is requested.
+     * A read failure is reported as an error result and ends the stream.
+     */
+    public <A> Stream<DataResult<A>> parseElements(final Decoder<A> decoder, final JsonReader reader) {
+        final Iterator<DataResult<A>> iterator = new Iterator<>() {
+            private boolean started;
+            private boolean done;
+            @Nullable
+            private IOException failure;
+
+            @Override
+            public boolean hasNext() {
+                if (done) {
+                    return false;
+                }
+                if (failure != null) {
+                    return true;
+                }
+                try {
+                    if (!started) {
+                        reader.beginArray();
+                        started = true;
+                    }
+                    if (reader.hasNext()) {
+                        return true;
+                    }
+                    reader.endArray();
+                } catch (final IOException e) {
+                    failure = e;
+                    return true;
+                }
+                done = true;
+                return false;
+            }
+
+            @Override
+            public DataResult<A> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Object value;
+                try {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    value = read(reader);
+                } catch (final IOException e) {
+                    done = true;
+                    return DataResult.error(() -> "Failed to read JSON: " + e.getMessage());
+                }
+                return decoder.parse(JsonStreamOps.this, value);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public Object empty() {
+        return JAVA.empty();
+    }
+
+    @Override
+    public Object emptyMap() {
+        return JAVA.emptyMap();
+    }
+
+    @Override
+    public Object emptyList() {
+        return JAVA.emptyList();
+    }
+
+    @Override
+    public <U> U convertTo(final DynamicOps<U> outOps, final Object input) {
+        if (input instanceof final Node node) {
+            return node.isMap() ? convertMap(outOps, node) : convertList(outOps, node);
+        }
+        if (input instanceof final Number number) {
+            return convertNumber(outOps, number);
+        }
+        // Created maps and lists may contain nodes
+        if (input instanceof Map) {
+            return convertMap(outOps, input);
+        }
+        if (input instanceof List && !(input instanceof ByteList || input instanceof IntList || input instanceof LongList)) {
+            return convertList(outOps, input);
+        }
+        return JAVA.convertTo(outOps, input);
+    }
+
+    /**
+     * JSON doesn't distinguish numeric types, so numbers are narrowed the same way {@link JsonOps} does.
+     */
+    private static <U> U convertNumber(final DynamicOps<U> outOps, final Number number) {
+        final BigDecimal value;
+        if (number instanceof final BigDecimal decimal) {
+            value = decimal;
+        } else if (number instanceof Double || number instanceof Float) {
+            final double d = number.doubleValue();
+            if (!Double.isFinite(d)) {
+                return outOps.createDouble(d);
+            }
+            value = new BigDecimal(d);
+        } else {
+            value = BigDecimal.valueOf(number.longValue());
+        }
+        try {
+            final long l = value.longValueExact();
+            if ((byte) l == l) {
+                return outOps.createByte((byte) l);
+            }
+            if ((short) l == l) {
+                return outOps.createShort((short) l);
+            }
+            if ((int) l == l) {
+                return outOps.createInt((int) l);
+            }
+            return outOps.createLong(l);
+        } catch (final ArithmeticException e) {
+            final double d = value.doubleValue();
+            if ((float) d == d) {
+                return outOps.createFloat((float) d);
+            }
+            return outOps.createDouble(d);
+        }
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(final Object input) {
+        return JAVA.getNumberValue(input);
+    }
+
+    @Override
+    public Object createNumeric(final Number i) {
+        return JAVA.createNumeric(i);
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(final Object input) {
+        return JAVA.getBooleanValue(input);
+    }
+
+    @Override
+    public Object createBoolean(final boolean value) {
+        return JAVA.createBoolean(value);
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final Object input) {
+        return JAVA.getStringValue(input);
+    }
+
+    @Override
+    public Object createString(final String value) {
+        return JAVA.createString(value);
+    }
+
+    @Override
+    public DataResult<Object> mergeToList(final Object list, final Object value) {
+        return JAVA.mergeToList(materialize(list), value);
+    }
+
+    @Override
+    public DataResult<Object> mergeToList(final Object list, final List<Object> values) {
+        return JAVA.mergeToList(materialize(list), values);
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final Object key, final Object value) {
+        return JAVA.mergeToMap(materialize(map), key, value);
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final Map<Object, Object> values) {
+        return JAVA.mergeToMap(materialize(map), values);
+    }
+
+    @Override
+    public DataResult<Object> mergeToMap(final Object map, final MapLike<Object> values) {
+        return JAVA.mergeToMap(materialize(map), values);
+    }
+
+    @Override
+    public DataResult<Stream<Pair<Object, Object>>> getMapValues(final Object input) {
+        if (input instanceof final Node node) {
+            if (!node.isMap()) {
+                return DataResult.error(() -> "Not a JSON object: " + input);
+            }
+            return DataResult.success(node.entries());
+        }
+        return JAVA.getMapValues(input);
+    }
+
+    @Override
+    public DataResult<Consumer<BiConsumer<Object, Object>>> getMapEntries(final Object input) {
+        if (input instanceof final Node node) {
+            if (!node.isMap()) {
+                return DataResult.error(() -> "Not a JSON object: " + input);
+            }
+            return DataResult.success(node::forEachEntry);
+        }
+        return JAVA.getMapEntries(input);
+    }
+
+    @Override
+    public DataResult<MapLike<Object>> getMap(final Object input) {
+        if (input instanceof final Node node) {
+            if (!node.isMap()) {
+                return DataResult.error(() -> "Not a JSON object: " + input);
+            }
+            return DataResult.success(new MapLike<>() {
+                // Fields are usually looked up in the order they were written, so each search starts after the last match
+                private int hint = node.index + 1;
+
+                @Nullable
+                @Override
+                public Object get(final Object key) {
+                    return key instanceof final String string ? get(string) : null;
+                }
+
+                @Nullable
+                @Override
+                public Object get(final String key) {
+                    final int found = node.find(key, hint);
+                    if (found < 0) {
+                        return null;
+                    }
+                    hint = node.tape.end(found + 1);
+                    return node.tape.value(found + 1);
+                }
+
+                @Override
+                public Stream<Pair<Object, Object>> entries() {
+                    return node.entries();
+                }
+
+                @Override
+                public String toString() {
+                    return "MapLike[" + node + "]";
+                }
+            });
+        }
+        return JAVA.getMap(input);
+    }
+
+    @Override
+    public Object createMap(final Stream<Pair<Object, Object>> map) {
+        return JAVA.createMap(map);
+    }
+
+    @Override
+    public Object createMap(final Map<Object, Object> map) {
+        return JAVA.createMap(map);
+    }
+
+    @Override
+    public DataResult<Stream<Object>> getStream(final Object input) {
+        if (input instanceof final Node node) {
+            if (node.isMap()) {
+                return DataResult.error(() -> "Not a json array: " + input);
+            }
+            return DataResult.success(node.elements());
+        }
+        return JAVA.getStream(input);
+    }
+
+    @Override
+    public DataResult<Consumer<Consumer<Object>>> getList(final Object input) {
+        if (input instanceof final Node node) {
+            if (node.isMap()) {
+                return DataResult.error(() -> "Not a json array: " + input);
+            }
+            return DataResult.success(node::forEachElement);
+        }
+        return JAVA.getList(input);
+    }
+
+    @Override
+    public Object createList(final Stream<Object> input) {
+        return JAVA.createList(input);
+    }
+
+    @Override
+    public DataResult<ByteBuffer> getByteBuffer(final Object input) {
+        return input instanceof Node ? DynamicOps.super.getByteBuffer(input) : JAVA.getByteBuffer(input);
+    }
+
+    @Override
+    public Object createByteList(final ByteBuffer input) {
+        return JAVA.createByteList(input);
+    }
+
+    @Override
+    public DataResult<IntStream> getIntStream(final Object input) {
+        return input instanceof Node ? DynamicOps.super.getIntStream(input) : JAVA.getIntStream(input);
+    }
+
+    @Override
+    public Object createIntList(final IntStream input) {
+        return JAVA.createIntList(input);
+    }
+
+    @Override
+    public DataResult<LongStream> getLongStream(final Object input) {
+        return input instanceof Node ? DynamicOps.super.getLongStream(input) : JAVA.getLongStream(input);
+    }
+
+    @Override
+    public Object createLongList(final LongStream input) {
+        return JAVA.createLongList(input);
+    }
+
+    @Override
+    public Object remove(final Object input, final String key) {
+        return JAVA.remove(materialize(input), key);
+    }
+
+    @Override
+    public String toString() {
+        return "JSON stream";
+    }
+
+    /**
+     * Parses a JSON number into the smallest of {@link Integer}, {@link Long} or {@link Double} that holds it.
+     */
+    static Number parseNumber(final String text) {
+        if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+            try {
+                final long value = Long.parseLong(text);
+                return (int) value == value ? (Number) (int) value : (Number) value;
+            } catch (final NumberFormatException e) {
+                // Too large for a long
+            }
+        }
+        final double value = Double.parseDouble(text);
+        if (!Double.isInfinite(value) && value == Math.rint(value) && Math.abs(value) >= 0x1p63) {
+            // Keep the exact value of integers beyond the range of a long
+            return new BigDecimal(text);
+        }
+        return value;
+    }
+
+    /**
+     * Copies a node into the {@link JavaOps} representation, so that it can be modified.
+     */
+    @Nullable
+    private static Object materialize(@Nullable final Object input) {
+        if (input instanceof final Node node) {
+            if (node.isMap()) {
+                final Map<Object, Object> map = new LinkedHashMap<>(node.size());
+                node.forEachEntry((key, value) -> {
+                    if (value != null) {
+                        map.put(key, materialize(value));
+                    }
+                });
+                return map;
+            }
+            final List<Object> list = new ArrayList<>(node.size());
+            node.forEachElement(value -> list.add(materialize(value)));
+            return list;
+        }
+        return input;
+    }
+
+    /**
+     * A parsed JSON object or array. Nodes are immutable views, and are cheap to create.
+     */
+    public static final class Node {
+        private final Tape tape;
+        private final int index;
+
+        private Node(final Tape tape, final int index) {
+            this.tape = tape;
+            this.index = index;
+        }
+
+        public boolean isMap() {
+            return tape.values[index] != Tape.ARRAY;
+        }
+
+        public int size() {
+            final int end = tape.ends[index];
+            final int step = isMap() ? 1 : 0;
+            int size = 0;
+            for (int i = index + 1; i < end; i = tape.end(i + step)) {
+                size++;
+            }
+            return size;
+        }
+
+        /**
+         * Finds an entry, starting at the entry at {@code from} and wrapping around.
+         * If the object has duplicate keys, the last one is found instead, like Gson does.
+         *
+         * @return the index of the key of the entry, or -1 if there is none
+         */
+        private int find(final String key, final int from) {
+            final int start = index + 1;
+            final int end = tape.ends[index];
+            if (tape.values[index] == Tape.OBJECT_WITH_DUPLICATES) {
+                int found = -1;
+                for (int i = start; i < end; i = tape.end(i + 1)) {
+                    if (key.equals(tape.values[i])) {
+                        found = i;
+                    }
+                }
+                return found;
+            }
+            for (int i = from; i < end; i = tape.end(i + 1)) {
+                if (key.equals(tape.values[i])) {
+                    return i;
+                }
+            }
+            for (int i = start; i < from; i = tape.end(i + 1)) {
+                if (key.equals(tape.values[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void forEachEntry(final BiConsumer<Object, Object> consumer) {
+            final int end = tape.ends[index];
+            for (int i = index + 1; i < end; i = tape.end(i + 1)) {
+                consumer.accept(tape.values[i], tape.value(i + 1));
+            }
+        }
+
+        private void forEachElement(final Consumer<Object> consumer) {
+            final int end = tape.ends[index];
+            for (int i = index + 1; i < end; i = tape.end(i)) {
+                consumer.accept(tape.value(i));
+            }
+        }
+
+        private Stream<Pair<Object, Object>> entries() {
+            final Pair<Object, Object>[] entries = newPairArray(size());
+            final int[] next = {0};
+            forEachEntry((key, value) -> entries[next[0]++] = Pair.of(key, value));
+            return Arrays.stream(entries);
+        }
+
+        private Stream<Object> elements() {
+            final Object[] elements = new Object[size()];
+            final int[] next = {0};
+            forEachElement(value -> elements[next[0]++] = value);
+            return Arrays.stream(elements);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Pair<Object, Object>[] newPairArray(final int size) {
+            return (Pair<Object, Object>[]) new Pair<?, ?>[size];
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Node that = (Node) o;
+            return tape == that.tape && index == that.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(tape) + index;
+        }
+
+        @Override
+        public String toString() {
+            return INSTANCE.convertTo(JsonOps.INSTANCE, this).toString();
+        }
+    }
+
+    /**
+     * Tokens of a single JSON value in document order, stored as parallel arrays to keep the overhead per token small.
+     * Primitive values and object keys are stored as is. Containers store a marker instead, along with the index just past
+     * their last token so that they can be skipped over. Object entries are stored as a key token followed by the value.
+     */
+    private static final class Tape {
+        private static final Object OBJECT = new Object();
+        private static final Object OBJECT_WITH_DUPLICATES = new Object();
+        private static final Object ARRAY = new Object();
+
+        private Object[] values = new Object[64];
+        private int[] ends = new int[64];
+        private int length;
+
+        private void read(final JsonReader reader) throws IOException {
+            final JsonToken token = reader.peek();
+            switch (token) {
+                case BEGIN_OBJECT -> {
+                    final int index = add(OBJECT);
+                    int size = 0;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        add(reader.nextName());
+                        read(reader);
+                        size++;
+                    }
+                    reader.endObject();
+                    ends[index] = length;
+                    if (hasDuplicateKeys(index, size)) {
+                        values[index] = OBJECT_WITH_DUPLICATES;
+                    }
+                }
+                case BEGIN_ARRAY -> {
+                    final int index = add(ARRAY);
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        read(reader);
+                    }
+                    reader.endArray();
+                    ends[index] = length;
+                }
+                case STRING -> add(reader.nextString());
+                case NUMBER -> add(parseNumber(reader.nextString()));
+                case BOOLEAN -> add(reader.nextBoolean());
+                case NULL -> {
+                    reader.nextNull();
+                    add(null);
+                }
+                default -> throw new MalformedJsonException("Unexpected " + token + " at " + reader.getPath());
+            }
+        }
+
+        private int add(@Nullable final Object value) {
+            if (length == values.length) {
+                values = Arrays.copyOf(values, length * 2);
+                ends = Arrays.copyOf(ends, length * 2);
+            }
+            values[length] = value;
+            return length++;
+        }
+
+        private boolean hasDuplicateKeys(final int index, final int size) {
+            if (size < 2) {
+                return false;
+            }
+            final int end = ends[index];
+            if (size > MapLikes.MAX_PAIRWISE_KEY_CHECK) {
+                final Set<Object> keys = new HashSet<>(size);
+                for (int i = index + 1; i < end; i = end(i + 1)) {
+                    if (!keys.add(values[i])) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (int i = index + 1; i < end; i = end(i + 1)) {
+                final int hash = values[i].hashCode();
+                for (int j = end(i + 1); j < end; j = end(j + 1)) {
+                    if (values[j].hashCode() == hash && values[j].equals(values[i])) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean isContainer(@Nullable final Object value) {
+            return value == OBJECT || value == OBJECT_WITH_DUPLICATES || value == ARRAY;
+        }
+
+        private int end(final int index) {
+            return isContainer(values[index]) ? ends[index] : index + 1;
+        }
+
+        @Nullable
+        private Object value(final int index) {
+            final Object value = values[index];
+            return isContainer(value) ? new Node(this, index) : value;
+        }
+    }
+}
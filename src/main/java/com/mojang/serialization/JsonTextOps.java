@@ -0,0 +1,558 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import com.mojang.datafixers.util.Pair;
+import com.mojang.datafixers.util.Unit;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Ops over compact JSON text, for producing large outputs without building a Gson tree first.
+ * <p>
+ * Every value is the serialized JSON of that value, so the builders append each field or element to a single buffer as
+ * soon as it is added, and the result can be written out as is. The {@code encode} methods go further and write each
+ * element of a top-level array or object to a {@link JsonWriter} as soon as it is encoded.
+ * <p>
+ * Adding a key that is already in the map replaces its value, like {@link JsonOps} does. This has to parse and rewrite
+ * the map, so it is only done when the key's text is found in it.
+ * Reading values, which a few encoders do, parses them again and is much slower than with {@link JsonOps}.
+ */
+public final class JsonTextOps implements DynamicOps<JsonTextOps.Text> {
+    public static final JsonTextOps INSTANCE = new JsonTextOps();
+
+    private static final Text NULL = new Text("null");
+    private static final Text EMPTY_MAP = new Text("{}");
+    private static final Text EMPTY_LIST = new Text("[]");
+    private static final Text TRUE = new Text("true");
+    private static final Text FALSE = new Text("false");
+
+    /**
+     * A serialized JSON value.
+     */
+    public record Text(String json) {
+        @Override
+        public String toString() {
+            return json;
+        }
+    }
+
+    private JsonTextOps() {
+    }
+
+    public <A> DataResult<Unit> encode(final Encoder<A> encoder, final A value, final JsonWriter writer) {
+        try {
+            return write(encoder.encodeStart(this, value), writer);
+        } catch (final IOException e) {
+            return DataResult.error(() -> "Failed to write JSON: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes an array, encoding and writing one element at a time.
+     * Elements that fail to encode are still written if they have a partial result, and the first error is returned.
+     */
+    public <A> DataResult<Unit> encodeElements(final Encoder<A> encoder, final Iterator<? extends A> values, final JsonWriter writer) {
+        DataResult<Unit> result = DataResult.success(Unit.INSTANCE);
+        try {
+            writer.beginArray();
+            while (values.hasNext()) {
+                result = result.apply2((r, v) -> r, write(encoder.encodeStart(this, values.next()), writer));
+            }
+            writer.endArray();
+        } catch (final IOException e) {
+            return DataResult.error(() -> "Failed to write JSON: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Writes an object, encoding and writing one entry at a time.
+     * Entries that fail to encode are still written if they have a partial result, and the first error is returned.
+     */
+    public <A> DataResult<Unit> encodeEntries(final Encoder<A> encoder, final Iterator<? extends Map.Entry<String, ? extends A>> entries, final JsonWriter writer) {
+        DataResult<Unit> result = DataResult.success(Unit.INSTANCE);
+        try {
+            writer.beginObject();
+            while (entries.hasNext()) {
+                final Map.Entry<String, ? extends A> entry = entries.next();
+                final DataResult<Text> value = encoder.encodeStart(this, entry.getValue());
+                if (value.resultOrPartial().isPresent()) {
+                    writer.name(entry.getKey());
+                }
+                result = result.apply2((r, v) -> r, write(value.mapError(error -> entry.getKey() + ": " + error), writer));
+            }
+            writer.endObject();
+        } catch (final IOException e) {
+            return DataResult.error(() -> "Failed to write JSON: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private static DataResult<Unit> write(final DataResult<Text> value, final JsonWriter writer) throws IOException {
+        final Text text = value.resultOrPartial().orElse(null);
+        if (text != null) {
+            writer.jsonValue(text.json());
+        }
+        return value.map(t -> Unit.INSTANCE);
+    }
+
+    @Override
+    public Text empty() {
+        return NULL;
+    }
+
+    @Override
+    public Text emptyMap() {
+        return EMPTY_MAP;
+    }
+
+    @Override
+    public Text emptyList() {
+        return EMPTY_LIST;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <U> U convertTo(final DynamicOps<U> outOps, final Text input) {
+        if (outOps == this) {
+            return (U) input;
+        }
+        return JsonOps.INSTANCE.convertTo(outOps, parse(input));
+    }
+
+    @Override
+    public DataResult<Number> getNumberValue(final Text input) {
+        final String json = input.json();
+        if (!json.isEmpty()) {
+            final char first = json.charAt(0);
+            if (first == '-' || first >= '0' && first <= '9' || json.equals("NaN") || json.equals("Infinity")) {
+                try {
+                    return DataResult.success(JsonStreamOps.parseNumber(json));
+                } catch (final NumberFormatException e) {
+                    return DataResult.error(() -> "Not a number: " + e + " " + input);
+                }
+            }
+        }
+        return DataResult.error(() -> "Not a number: " + input);
+    }
+
+    @Override
+    public Text createNumeric(final Number i) {
+        return new Text(i.toString());
+    }
+
+    @Override
+    public Text createByte(final byte value) {
+        return new Text(Byte.toString(value));
+    }
+
+    @Override
+    public Text createShort(final short value) {
+        return new Text(Short.toString(value));
+    }
+
+    @Override
+    public Text createInt(final int value) {
+        return new Text(Integer.toString(value));
+    }
+
+    @Override
+    public Text createLong(final long value) {
+        return new Text(Long.toString(value));
+    }
+
+    @Override
+    public Text createFloat(final float value) {
+        return new Text(Float.toString(value));
+    }
+
+    @Override
+    public Text createDouble(final double value) {
+        return new Text(Double.toString(value));
+    }
+
+    @Override
+    public DataResult<Boolean> getBooleanValue(final Text input) {
+        if (input.equals(TRUE)) {
+            return DataResult.success(true);
+        }
+        if (input.equals(FALSE)) {
+            return DataResult.success(false);
+        }
+        return DataResult.error(() -> "Not a boolean: " + input);
+    }
+
+    @Override
+    public Text createBoolean(final boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    @Override
+    public DataResult<String> getStringValue(final Text input) {
+        final String json = input.json();
+        if (!isString(json)) {
+            return DataResult.error(() -> "Not a string: " + input);
+        }
+        if (json.indexOf('\\') < 0) {
+            return DataResult.success(json.substring(1, json.length() - 1));
+        }
+        try {
+            return DataResult.success(JsonParser.parseString(json).getAsString());
+        } catch (final JsonParseException e) {
+            return DataResult.error(() -> "Not a string: " + e.getMessage() + " " + input);
+        }
+    }
+
+    @Override
+    public Text createString(final String value) {
+        return new Text(appendQuoted(new StringBuilder(value.length() + 2), value).toString());
+    }
+
+    @Override
+    public DataResult<Text> mergeToList(final Text list, final Text value) {
+        return mergeToList(list, List.of(value));
+    }
+
+    @Override
+    public DataResult<Text> mergeToList(final Text list, final List<Text> values) {
+        if (!isList(list.json()) && !NULL.equals(list)) {
+            return DataResult.error(() -> "mergeToList called with not a list: " + list, list);
+        }
+        final StringBuilder builder = new StringBuilder("[");
+        for (final Text value : values) {
+            appendSeparator(builder).append(value.json());
+        }
+        return DataResult.success(concat(NULL.equals(list) ? EMPTY_LIST : list, builder.append(']')));
+    }
+
+    @Override
+    public DataResult<Text> mergeToMap(final Text map, final Text key, final Text value) {
+        if (!isMap(map.json()) && !NULL.equals(map)) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        if (!isString(key.json())) {
+            return DataResult.error(() -> "key is not a string: " + key, map);
+        }
+        final StringBuilder entry = new StringBuilder(key.json().length() + value.json().length() + 3);
+        entry.append('{').append(key.json()).append(':').append(value.json()).append('}');
+        if (NULL.equals(map) || !map.json().contains(key.json())) {
+            return DataResult.success(concat(NULL.equals(map) ? EMPTY_MAP : map, entry));
+        }
+        return DataResult.success(dedupe(concat(map, entry)));
+    }
+
+    @Override
+    public DataResult<Text> mergeToMap(final Text map, final MapLike<Text> values) {
+        if (!isMap(map.json()) && !NULL.equals(map)) {
+            return DataResult.error(() -> "mergeToMap called with not a map: " + map, map);
+        }
+        final RecordBuilder<Text> builder = mapBuilder();
+        values.entries().forEach(entry -> builder.add(entry.getFirst(), entry.getSecond()));
+        return builder.build(map);
+    }
+
+    @Override
+    public DataResult<Stream<Pair<Text, Text>>> getMapValues(final Text input) {
+        if (!isMap(input.json())) {
+            return DataResult.error(() -> "Not a JSON object: " + input);
+        }
+        return DataResult.success(parse(input).getAsJsonObject().entrySet().stream().map(entry -> Pair.of(createString(entry.getKey()), entry.getValue() instanceof JsonNull ? null : new Text(entry.getValue().toString()))));
+    }
+
+    @Override
+    public DataResult<MapLike<Text>> getMap(final Text input) {
+        if (!isMap(input.json())) {
+            return DataResult.error(() -> "Not a JSON object: " + input);
+        }
+        final JsonObject object = parse(input).getAsJsonObject();
+        return DataResult.success(new MapLike<>() {
+            @Nullable
+            @Override
+            public Text get(final Text key) {
+                return getStringValue(key).result().map(this::get).orElse(null);
+            }
+
+            @Nullable
+            @Override
+            public Text get(final String key) {
+                final JsonElement element = object.get(key);
+                if (element == null || element instanceof JsonNull) {
+                    return null;
+                }
+                return new Text(element.toString());
+            }
+
+            @Override
+            public Stream<Pair<Text, Text>> entries() {
+                return object.entrySet().stream().map(e -> Pair.of(createString(e.getKey()), new Text(e.getValue().toString())));
+            }
+
+            @Override
+            public String toString() {
+                return "MapLike[" + input + "]";
+            }
+        });
+    }
+
+    @Override
+    public Text createMap(final Stream<Pair<Text, Text>> map) {
+        final StringBuilder builder = new StringBuilder("{");
+        final Set<String> keys = new HashSet<>();
+        boolean duplicates = false;
+        for (final Iterator<Pair<Text, Text>> iterator = map.iterator(); iterator.hasNext(); ) {
+            final Pair<Text, Text> entry = iterator.next();
+            final String key = mapKey(entry.getFirst());
+            duplicates |= !keys.add(key);
+            appendSeparator(builder).append(key).append(':').append(entry.getSecond().json());
+        }
+        final Text result = new Text(builder.append('}').toString());
+        return duplicates ? dedupe(result) : result;
+    }
+
+    @Override
+    public DataResult<Stream<Text>> getStream(final Text input) {
+        if (!isList(input.json())) {
+            return DataResult.error(() -> "Not a json array: " + input);
+        }
+        return DataResult.success(parse(input).getAsJsonArray().asList().stream().map(e -> e instanceof JsonNull ? null : new Text(e.toString())));
+    }
+
+    @Override
+    public Text createList(final Stream<Text> input) {
+        final StringBuilder builder = new StringBuilder("[");
+        input.forEach(value -> appendSeparator(builder).append(value.json()));
+        return new Text(builder.append(']').toString());
+    }
+
+    @Override
+    public Text remove(final Text input, final String key) {
+        if (isMap(input.json())) {
+            final JsonObject object = parse(input).getAsJsonObject();
+            object.remove(key);
+            return new Text(object.toString());
+        }
+        return input;
+    }
+
+    @Override
+    public String toString() {
+        return "JSON text";
+    }
+
+    @Override
+    public ListBuilder<Text> listBuilder() {
+        return new TextListBuilder();
+    }
+
+    @Override
+    public RecordBuilder<Text> mapBuilder() {
+        return new TextRecordBuilder();
+    }
+
+    private static JsonElement parse(final Text input) {
+        return JsonParser.parseString(input.json());
+    }
+
+    private static boolean isString(final String json) {
+        return json.length() >= 2 && json.charAt(0) == '"';
+    }
+
+    private static boolean isMap(final String json) {
+        return !json.isEmpty() && json.charAt(0) == '{';
+    }
+
+    private static boolean isList(final String json) {
+        return !json.isEmpty() && json.charAt(0) == '[';
+    }
+
+    private static boolean isEmptyContainer(final CharSequence json) {
+        for (int i = 1; i < json.length() - 1; i++) {
+            if (!Character.isWhitespace(json.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites an object so that each key appears once, keeping the last value at the position of the first, like
+     * replacing the value of a {@link JsonObject} does.
+     */
+    private static Text dedupe(final Text map) {
+        return new Text(parse(map).toString());
+    }
+
+    /**
+     * Appends the contents of an array or object to another one of the same kind.
+     */
+    private static Text concat(final Text prefix, final StringBuilder suffix) {
+        if (isEmptyContainer(suffix)) {
+            return prefix;
+        }
+        final String json = prefix.json();
+        if (isEmptyContainer(json)) {
+            return new Text(suffix.toString());
+        }
+        final int end = json.lastIndexOf(json.charAt(0) == '{' ? '}' : ']');
+        return new Text(new StringBuilder(end + suffix.length()).append(json, 0, end).append(',').append(suffix, 1, suffix.length()).toString());
+    }
+
+    private static String mapKey(final Text key) {
+        final String json = key.json();
+        if (isString(json)) {
+            return json;
+        }
+        if (isMap(json) || isList(json) || NULL.equals(key)) {
+            throw new IllegalArgumentException("Not a valid map key: " + key);
+        }
+        // Numbers and booleans, which Gson also accepts as keys
+        return INSTANCE.createString(json).json();
+    }
+
+    private static StringBuilder appendSeparator(final StringBuilder builder) {
+        if (builder.length() > 1) {
+            builder.append(',');
+        }
+        return builder;
+    }
+
+    /**
+     * Quotes and escapes a string the same way {@link JsonWriter} does.
+     */
+    private static StringBuilder appendQuoted(final StringBuilder builder, final String value) {
+        builder.append('"');
+        int last = 0;
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final String replacement;
+            if (c < 0x20) {
+                replacement = switch (c) {
+                    case '\t' -> "\\t";
+                    case '\b' -> "\\b";
+                    case '\n' -> "\\n";
+                    case '\r' -> "\\r";
+                    case '\f' -> "\\f";
+                    default -> String.format("\\u%04x", (int) c);
+                };
+            } else if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '\u2028') {
+                replacement = "\\u2028";
+            } else if (c == '\u2029') {
+                replacement = "\\u2029";
+            } else {
+                continue;
+            }
+            builder.append(value, last, i).append(replacement);
+            last = i + 1;
+        }
+        return builder.append(value, last, length).append('"');
+    }
+
+    private static final class TextListBuilder implements ListBuilder<Text> {
+        private DataResult<StringBuilder> builder = DataResult.success(new StringBuilder("["), Lifecycle.stable());
+
+        @Override
+        public DynamicOps<Text> ops() {
+            return INSTANCE;
+        }
+
+        @Override
+        public ListBuilder<Text> add(final Text value) {
+            builder = builder.map(b -> appendSeparator(b).append(value.json()));
+            return this;
+        }
+
+        @Override
+        public ListBuilder<Text> add(final DataResult<Text> value) {
+            builder = builder.apply2stable((b, element) -> appendSeparator(b).append(element.json()), value);
+            return this;
+        }
+
+        @Override
+        public ListBuilder<Text> withErrorsFrom(final DataResult<?> result) {
+            builder = builder.flatMap(r -> result.map(v -> r));
+            return this;
+        }
+
+        @Override
+        public ListBuilder<Text> mapError(final UnaryOperator<String> onError) {
+            builder = builder.mapError(onError);
+            return this;
+        }
+
+        @Override
+        public DataResult<Text> build(final Text prefix) {
+            final DataResult<Text> result = builder.flatMap(b -> {
+                if (!isList(prefix.json()) && !NULL.equals(prefix)) {
+                    return DataResult.error(() -> "Cannot append a list to not a list: " + prefix, prefix);
+                }
+                return DataResult.success(concat(NULL.equals(prefix) ? EMPTY_LIST : prefix, b.append(']')), Lifecycle.stable());
+            });
+
+            builder = DataResult.success(new StringBuilder("["), Lifecycle.stable());
+            return result;
+        }
+    }
+
+    private static final class TextRecordBuilder extends RecordBuilder.AbstractStringBuilder<Text, TextRecordBuilder.Entries> {
+        private static final class Entries {
+            private final StringBuilder json = new StringBuilder("{");
+            private final Set<String> keys = new HashSet<>();
+            private boolean duplicates;
+        }
+
+        private TextRecordBuilder() {
+            super(INSTANCE);
+        }
+
+        @Override
+        protected Entries initBuilder() {
+            return new Entries();
+        }
+
+        @Override
+        protected Entries append(final String key, final Text value, final Entries builder) {
+            if (!builder.keys.add(key)) {
+                builder.duplicates = true;
+            }
+            appendQuoted(appendSeparator(builder.json), key).append(':').append(value.json());
+            return builder;
+        }
+
+        @Override
+        protected DataResult<Text> build(final Entries builder, final Text prefix) {
+            final Text merged;
+            boolean duplicates = builder.duplicates;
+            if (prefix == null || NULL.equals(prefix)) {
+                merged = new Text(builder.json.append('}').toString());
+            } else if (isMap(prefix.json())) {
+                merged = concat(prefix, builder.json.append('}'));
+                if (!duplicates && !isEmptyContainer(prefix.json())) {
+                    duplicates = builder.keys.stream().anyMatch(key -> prefix.json().contains(appendQuoted(new StringBuilder(), key)));
+                }
+            } else {
+                return DataResult.error(() -> "mergeToMap called with not a map: " + prefix, prefix);
+            }
+            return DataResult.success(duplicates ? dedupe(merged) : merged);
+        }
+    }
+}
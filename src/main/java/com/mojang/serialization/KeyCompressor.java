@@ -2,54 +2,81 @@
 // Licensed under the MIT license.
 package com.mojang.serialization;
 
-import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.objects.Object2IntArrayMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
+/**
+ * Immutable once constructed, so a single instance can be shared by concurrent encoders and decoders.
+ */
 public final class KeyCompressor<T> {
-    private final Int2ObjectMap<T> decompress = new Int2ObjectArrayMap<>();
-    private final Object2IntMap<T> compress = new Object2IntArrayMap<>();
-    private final Object2IntMap<String> compressString = new Object2IntArrayMap<>();
-    private final int size;
+    private final Object[] decompress;
+    private final String[] names;
+    private final Object2IntMap<T> compress = new Object2IntOpenHashMap<>();
+    private final Object2IntMap<String> compressString = new Object2IntOpenHashMap<>();
     private final DynamicOps<T> ops;
 
     public KeyCompressor(final DynamicOps<T> ops, final Stream<T> keyStream) {
         this.ops = ops;
 
+        compress.defaultReturnValue(-1);
         compressString.defaultReturnValue(-1);
 
+        final List<T> keys = new ArrayList<>();
         keyStream.forEach(key -> {
             if (compress.containsKey(key)) {
                 return;
             }
-            final int next = compress.size();
+            final int next = keys.size();
             compress.put(key, next);
             ops.getStringValue(key).result().ifPresent(k ->
                 compressString.put(k, next)
             );
-            decompress.put(next, key);
+            keys.add(key);
         });
 
-        size = compress.size();
+        decompress = keys.toArray();
+        names = new String[decompress.length];
+        compressString.object2IntEntrySet().forEach(entry -> names[entry.getIntValue()] = entry.getKey());
     }
 
+    @Nullable
+    @SuppressWarnings("unchecked")
     public T decompress(final int key) {
-        return decompress.get(key);
+        return key >= 0 && key < decompress.length ? (T) decompress[key] : null;
     }
 
+    /**
+     * @return the slot of the key, or -1 if it is not one of the compressed keys
+     */
     public int compress(final String key) {
         final int id = compressString.getInt(key);
         return id == -1 ? compress(ops.createString(key)) : id;
     }
 
+    /**
+     * @return the slot of the key, or -1 if it is not one of the compressed keys
+     */
     public int compress(final T key) {
         return compress.getInt(key);
     }
 
+    /**
+     * Checks a guessed slot without hashing the key, field names are usually the same constant so this is a reference comparison.
+     */
+    public boolean isSlot(final int slot, final String key) {
+        return slot >= 0 && slot < names.length && key.equals(names[slot]);
+    }
+
+    public boolean isSlot(final int slot, final T key) {
+        return slot >= 0 && slot < decompress.length && key.equals(decompress[slot]);
+    }
+
     public int size() {
-        return size;
+        return decompress.length;
     }
 }
@@ -25,20 +25,33 @@ public interface MapDecoder<A> extends Keyable {
             }
 
             final KeyCompressor<T> compressor = compressor(ops);
-            final List<T> entries = new ArrayList<>();
+            final List<T> entries = new ArrayList<>(compressor.size());
             inputList.get().accept(entries::add);
 
             final MapLike<T> map = new MapLike<T>() {
+                // Records look their fields up in the order the compressor was built from, so the next slot is tried first
+                private int next;
+
                 @Nullable
                 @Override
                 public T get(final T key) {
-                    return entries.get(compressor.compress(key));
+                    return slot(compressor.isSlot(next, key) ? next : compressor.compress(key));
                 }
 
                 @Nullable
                 @Override
                 public T get(final String key) {
-                    return entries.get(compressor.compress(key));
+                    return slot(compressor.isSlot(next, key) ? next : compressor.compress(key));
+                }
+
+                // Unknown keys and trailing slots that were left out are read as absent
+                @Nullable
+                private T slot(final int index) {
+                    if (index == -1) {
+                        return null;
+                    }
+                    next = index + 1;
+                    return index < entries.size() ? entries.get(index) : null;
                 }
 
                 @Override
@@ -2,7 +2,7 @@
 // Licensed under the MIT license.
 package com.mojang.serialization;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -96,29 +96,86 @@ public interface MapEncoder<A> extends Keyable {
     }
 
     static <T> RecordBuilder<T> makeCompressedBuilder(final DynamicOps<T> ops, final KeyCompressor<T> compressor) {
-        class CompressedRecordBuilder extends RecordBuilder.AbstractUniversalBuilder<T, List<T>> {
+        class CompressedRecordBuilder extends RecordBuilder.AbstractBuilder<T, Object[]> {
             private CompressedRecordBuilder() {
                 super(ops);
             }
 
             @Override
-            protected List<T> initBuilder() {
-                final List<T> list = new ArrayList<>(compressor.size());
-                for (int i = 0; i < compressor.size(); i++) {
-                    list.add(null);
-                }
-                return list;
+            protected Object[] initBuilder() {
+                return new Object[compressor.size()];
+            }
+
+            // Field names go straight to their slot, without creating a key value to look up
+            @Override
+            public RecordBuilder<T> add(final String key, final T value) {
+                return set(compressor.compress(key), key, value);
+            }
+
+            @Override
+            public RecordBuilder<T> add(final String key, final DataResult<T> value) {
+                return set(compressor.compress(key), key, value);
+            }
+
+            @Override
+            public RecordBuilder<T> add(final T key, final T value) {
+                return set(compressor.compress(key), key, value);
             }
 
             @Override
-            protected List<T> append(final T key, final T value, final List<T> builder) {
-                builder.set(compressor.compress(key), value);
-                return builder;
+            public RecordBuilder<T> add(final T key, final DataResult<T> value) {
+                return set(compressor.compress(key), key, value);
+            }
+
+            @Override
+            public RecordBuilder<T> add(final DataResult<T> key, final DataResult<T> value) {
+                final DataResult<Integer> slot = key.flatMap(k -> {
+                    final int index = compressor.compress(k);
+                    return index == -1 ? DataResult.error(() -> unknownKey(k)) : DataResult.success(index);
+                });
+                builder = builder.ap(slot.apply2stable((index, v) -> b -> {
+                    b[index] = v;
+                    return b;
+                }, value));
+                return this;
+            }
+
+            private RecordBuilder<T> set(final int slot, final Object key, final T value) {
+                if (slot == -1) {
+                    return failUnknown(key);
+                }
+                builder = builder.map(b -> {
+                    b[slot] = value;
+                    return b;
+                });
+                return this;
+            }
+
+            private RecordBuilder<T> set(final int slot, final Object key, final DataResult<T> value) {
+                if (slot == -1) {
+                    return failUnknown(key);
+                }
+                builder = builder.apply2stable((b, v) -> {
+                    b[slot] = v;
+                    return b;
+                }, value);
+                return this;
+            }
+
+            // Writing an unknown key into any slot would corrupt the record, so it fails like an invalid value does
+            private RecordBuilder<T> failUnknown(final Object key) {
+                builder = builder.flatMap(b -> DataResult.error(() -> unknownKey(key), b));
+                return this;
+            }
+
+            private String unknownKey(final Object key) {
+                return "Key " + key + " is not one of the compressed keys";
             }
 
+            @SuppressWarnings("unchecked")
             @Override
-            protected DataResult<T> build(final List<T> builder, final T prefix) {
-                return ops().mergeToList(prefix, builder);
+            protected DataResult<T> build(final Object[] builder, final T prefix) {
+                return ops().mergeToList(prefix, (List<T>) Arrays.asList(builder));
             }
         }
 
@@ -5,7 +5,10 @@ package com.mojang.serialization;
 import com.mojang.datafixers.util.Pair;
 
 import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public interface MapLike<T> {
@@ -75,4 +78,93 @@ public interface MapLike<T> {
             }
         };
     }
+
+    /**
+     * Views a list of entries without copying them. Small maps are searched linearly, larger ones get a hash index.
+     *
+     * @throws IllegalStateException if a key is repeated, with the same message as {@link Pair#toMap()}
+     */
+    static <T> MapLike<T> forEntries(final List<Pair<T, T>> entries, final DynamicOps<T> ops) {
+        if (entries.isEmpty()) {
+            return empty();
+        }
+        if (entries.size() > MapLikes.MAX_PAIRWISE_KEY_CHECK) {
+            final Map<T, T> index = new HashMap<>(entries.size() * 2);
+            for (final Pair<T, T> entry : entries) {
+                final T previous = index.putIfAbsent(entry.getFirst(), entry.getSecond());
+                if (previous != null) {
+                    throw duplicateKey(entry.getFirst(), previous, entry.getSecond());
+                }
+            }
+            return new MapLike<T>() {
+                @Nullable
+                @Override
+                public T get(final T key) {
+                    return index.get(key);
+                }
+
+                @Nullable
+                @Override
+                public T get(final String key) {
+                    return index.get(ops.createString(key));
+                }
+
+                @Override
+                public Stream<Pair<T, T>> entries() {
+                    return entries.stream();
+                }
+
+                @Override
+                public String toString() {
+                    return describe(entries);
+                }
+            };
+        }
+
+        for (int i = 1; i < entries.size(); i++) {
+            final T key = entries.get(i).getFirst();
+            for (int j = 0; j < i; j++) {
+                if (key.equals(entries.get(j).getFirst())) {
+                    throw duplicateKey(key, entries.get(j).getSecond(), entries.get(i).getSecond());
+                }
+            }
+        }
+        return new MapLike<T>() {
+            @Nullable
+            @Override
+            public T get(final T key) {
+                for (int i = 0; i < entries.size(); i++) {
+                    final Pair<T, T> entry = entries.get(i);
+                    if (key.equals(entry.getFirst())) {
+                        return entry.getSecond();
+                    }
+                }
+                return null;
+            }
+
+            @Nullable
+            @Override
+            public T get(final String key) {
+                return get(ops.createString(key));
+            }
+
+            @Override
+            public Stream<Pair<T, T>> entries() {
+                return entries.stream();
+            }
+
+            @Override
+            public String toString() {
+                return describe(entries);
+            }
+        };
+    }
+
+    private static <T> String describe(final List<Pair<T, T>> entries) {
+        return entries.stream().map(e -> e.getFirst() + "=" + e.getSecond()).collect(Collectors.joining(", ", "MapLike[{", "}]"));
+    }
+
+    private static IllegalStateException duplicateKey(final Object key, final Object first, final Object second) {
+        return new IllegalStateException("Duplicate key " + key + " (attempted merging values " + first + " and " + second + ")");
+    }
 }
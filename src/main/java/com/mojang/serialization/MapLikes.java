@@ -0,0 +1,16 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.serialization;
+
+/**
+ * Tuning shared by the {@link MapLike} implementations in this package.
+ */
+final class MapLikes {
+    /**
+     * Maps with up to this many entries compare their keys pairwise, larger ones hash them.
+     */
+    static final int MAX_PAIRWISE_KEY_CHECK = 16;
+
+    private MapLikes() {
+    }
+}
@@ -11,9 +11,10 @@ import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.Lifecycle;
 import com.mojang.serialization.MapLike;
 import com.mojang.serialization.RecordBuilder;
-import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
-import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
 
+import javax.annotation.Nullable;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -24,39 +25,79 @@ public interface BaseMapCodec<K, V> {
     Codec<V> elementCodec();
 
     default <T> DataResult<Map<K, V>> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-        final Object2ObjectMap<K, V> read = new Object2ObjectArrayMap<>();
+        if (ops.failFast()) {
+            return decodeFailFast(ops, input);
+        }
+        final Map<K, V> read = new Object2ObjectLinkedOpenHashMap<>();
         final Stream.Builder<Pair<T, T>> failed = Stream.builder();
+        Lifecycle lifecycle = Lifecycle.stable();
+        // Only composed once an entry fails, until then the lifecycle is all there is to track
+        @Nullable
+        DataResult<Unit> result = null;
 
-        final DataResult<Unit> result = input.entries().reduce(
-            DataResult.success(Unit.INSTANCE, Lifecycle.stable()),
-            (r, pair) -> {
-                final DataResult<K> key = keyCodec().parse(ops, pair.getFirst());
-                final DataResult<V> value = elementCodec().parse(ops, pair.getSecond());
+        for (final Iterator<Pair<T, T>> iterator = input.entries().iterator(); iterator.hasNext(); ) {
+            final Pair<T, T> pair = iterator.next();
+            final DataResult<K> key = keyCodec().parse(ops, pair.getFirst());
+            final DataResult<V> value = elementCodec().parse(ops, pair.getSecond());
 
-                final DataResult<Pair<K, V>> entryResult = key.apply2stable(Pair::of, value);
-                final Optional<Pair<K, V>> entry = entryResult.resultOrPartial();
-                if (entry.isPresent()) {
-                    final V existingValue = read.putIfAbsent(entry.get().getFirst(), entry.get().getSecond());
-                    if (existingValue != null) {
-                        failed.add(pair);
-                        return r.apply2stable((u, p) -> u, DataResult.error(() -> "Duplicate entry for key: '" + entry.get().getFirst() + "'"));
-                    }
+            if (result == null && key instanceof final DataResult.Success<K> k && value instanceof final DataResult.Success<V> v) {
+                if (read.putIfAbsent(k.value(), v.value()) == null) {
+                    lifecycle = lifecycle.add(k.lifecycle()).add(v.lifecycle());
+                    continue;
                 }
-                if (entryResult.isError()) {
+            }
+            if (result == null) {
+                result = DataResult.success(Unit.INSTANCE, lifecycle);
+            }
+
+            final DataResult<Pair<K, V>> entryResult = key.apply2stable(Pair::of, value);
+            final Optional<Pair<K, V>> entry = entryResult.resultOrPartial();
+            if (entry.isPresent()) {
+                final V existingValue = read.putIfAbsent(entry.get().getFirst(), entry.get().getSecond());
+                if (existingValue != null) {
                     failed.add(pair);
+                    result = result.apply2stable((u, p) -> u, DataResult.error(() -> "Duplicate entry for key: '" + entry.get().getFirst() + "'"));
+                    continue;
                 }
+            }
+            if (entryResult.isError()) {
+                failed.add(pair);
+            }
 
-                return r.apply2stable((u, p) -> u, entryResult);
-            },
-            (r1, r2) -> r1.apply2stable((u1, u2) -> u1, r2)
-        );
+            result = result.apply2stable((u, p) -> u, entryResult);
+        }
 
         final Map<K, V> elements = ImmutableMap.copyOf(read);
+        if (result == null) {
+            return DataResult.success(elements, lifecycle);
+        }
         final T errors = ops.createMap(failed.build());
 
         return result.map(unit -> elements).setPartial(elements).mapError(e -> e + " missed input: " + errors);
     }
 
+    private <T> DataResult<Map<K, V>> decodeFailFast(final DynamicOps<T> ops, final MapLike<T> input) {
+        final Map<K, V> read = new Object2ObjectLinkedOpenHashMap<>();
+        Lifecycle lifecycle = Lifecycle.stable();
+        for (final Iterator<Pair<T, T>> iterator = input.entries().iterator(); iterator.hasNext(); ) {
+            final Pair<T, T> pair = iterator.next();
+            final DataResult<K> key = keyCodec().parse(ops, pair.getFirst());
+            if (key instanceof final DataResult.Error<K> error) {
+                return error.withoutPartial();
+            }
+            final DataResult<V> value = elementCodec().parse(ops, pair.getSecond());
+            if (value instanceof final DataResult.Error<V> error) {
+                return error.withoutPartial();
+            }
+            final K k = key.getOrThrow();
+            if (read.putIfAbsent(k, value.getOrThrow()) != null) {
+                return DataResult.error(() -> "Duplicate entry for key: '" + k + "'");
+            }
+            lifecycle = lifecycle.add(key.lifecycle()).add(value.lifecycle());
+        }
+        return DataResult.success(ImmutableMap.copyOf(read), lifecycle);
+    }
+
     default <T> RecordBuilder<T> encode(final Map<K, V> input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
         for (final Map.Entry<K, V> entry : input.entrySet()) {
             prefix.add(keyCodec().encodeStart(ops, entry.getKey()), elementCodec().encodeStart(ops, entry.getValue()));
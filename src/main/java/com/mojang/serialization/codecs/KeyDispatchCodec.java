@@ -8,36 +8,97 @@ import com.mojang.serialization.MapEncoder;
 import com.mojang.serialization.MapLike;
 import com.mojang.serialization.RecordBuilder;
 
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
 public class KeyDispatchCodec<K, V> extends MapCodec<V> {
     private static final String COMPRESSED_VALUE_KEY = "value";
+    // Bounds the cache for key types that are not drawn from a registry
+    private static final int MAX_CACHED_KEYS = 4096;
     private final MapCodec<K> keyCodec;
     private final Function<? super V, ? extends DataResult<? extends K>> type;
     private final Function<? super K, ? extends DataResult<? extends MapDecoder<? extends V>>> decoder;
+    // Null when the decoder of type(V) is also its encoder, which saves evaluating type twice
+    @Nullable
     private final Function<? super V, ? extends DataResult<? extends MapEncoder<V>>> encoder;
+    // Only present for codecs that opted into caching, see invalidateCache
+    @Nullable
+    private final Map<K, DataResult<? extends MapDecoder<? extends V>>> resolved;
+    // Guarded by this, bumped on every invalidation so that lookups started before it are not remembered
+    private volatile int generation;
 
-    protected KeyDispatchCodec(final MapCodec<K> keyCodec, final Function<? super V, ? extends DataResult<? extends K>> type, final Function<? super K, ? extends DataResult<? extends MapDecoder<? extends V>>> decoder, final Function<? super V, ? extends DataResult<? extends MapEncoder<V>>> encoder) {
+    protected KeyDispatchCodec(final MapCodec<K> keyCodec, final Function<? super V, ? extends DataResult<? extends K>> type, final Function<? super K, ? extends DataResult<? extends MapDecoder<? extends V>>> decoder, @Nullable final Function<? super V, ? extends DataResult<? extends MapEncoder<V>>> encoder) {
+        this(keyCodec, type, decoder, encoder, false);
+    }
+
+    protected KeyDispatchCodec(final MapCodec<K> keyCodec, final Function<? super V, ? extends DataResult<? extends K>> type, final Function<? super K, ? extends DataResult<? extends MapDecoder<? extends V>>> decoder, @Nullable final Function<? super V, ? extends DataResult<? extends MapEncoder<V>>> encoder, final boolean cached) {
         this.keyCodec = keyCodec;
         this.type = type;
         this.decoder = decoder;
         this.encoder = encoder;
+        this.resolved = cached ? new ConcurrentHashMap<>() : null;
     }
 
     /**
      * Assumes codec(type(V)) is MapCodec<V>
      */
     public KeyDispatchCodec(final MapCodec<K> keyCodec, final Function<? super V, ? extends DataResult<? extends K>> type, final Function<? super K, ? extends DataResult<? extends MapCodec<? extends V>>> codec) {
-        this(keyCodec, type, codec, v -> getCodec(type, codec, v));
+        this(keyCodec, type, codec, false);
+    }
+
+    /**
+     * Assumes codec(type(V)) is MapCodec<V>
+     *
+     * @param cached whether successful lookups of {@code codec} are remembered per key, which requires calling
+     *               {@link #invalidateCache()} whenever the lookup would start returning something else for a key
+     */
+    public KeyDispatchCodec(final MapCodec<K> keyCodec, final Function<? super V, ? extends DataResult<? extends K>> type, final Function<? super K, ? extends DataResult<? extends MapCodec<? extends V>>> codec, final boolean cached) {
+        this(keyCodec, type, codec, null, cached);
+    }
+
+    /**
+     * Forgets every codec resolved so far, such as when the dynamic registry behind the lookup is reloaded.
+     * Does nothing for codecs that are not cached.
+     */
+    public void invalidateCache() {
+        if (resolved != null) {
+            synchronized (this) {
+                generation++;
+                resolved.clear();
+            }
+        }
+    }
+
+    private DataResult<? extends MapDecoder<? extends V>> resolve(@Nullable final K key) {
+        if (resolved == null || key == null) {
+            return decoder.apply(key);
+        }
+        final DataResult<? extends MapDecoder<? extends V>> cached = resolved.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final int lookupGeneration = generation;
+        final DataResult<? extends MapDecoder<? extends V>> result = decoder.apply(key);
+        // Errors are not remembered, as the key may become known later
+        if (result.isSuccess()) {
+            synchronized (this) {
+                if (generation == lookupGeneration && resolved.size() < MAX_CACHED_KEYS) {
+                    resolved.putIfAbsent(key, result);
+                }
+            }
+        }
+        return result;
     }
 
     @Override
     public <T> DataResult<V> decode(final DynamicOps<T> ops, final MapLike<T> input) {
         return keyCodec.decode(ops, input).flatMap(type ->
-            decoder.apply(type).flatMap(elementDecoder -> {
+            resolve(type).flatMap(elementDecoder -> {
                 if (ops.compressMaps()) {
-                    final T value = input.get(ops.createString(COMPRESSED_VALUE_KEY));
+                    final T value = input.get(COMPRESSED_VALUE_KEY);
                     if (value == null) {
                         return DataResult.error(() -> "Input does not have a \"value\" entry: " + input);
                     }
@@ -50,8 +111,8 @@ public class KeyDispatchCodec<K, V> extends MapCodec<V> {
 
     @Override
     public <T> RecordBuilder<T> encode(final V input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-        final DataResult<? extends MapEncoder<V>> encoderResult = encoder.apply(input);
         final DataResult<? extends K> typeResult = this.type.apply(input);
+        final DataResult<? extends MapEncoder<V>> encoderResult = encoder != null ? encoder.apply(input) : typeResult.flatMap(this::resolveEncoder);
 
         final RecordBuilder<T> builder = prefix.withErrorsFrom(encoderResult).withErrorsFrom(typeResult);
         if (encoderResult.isError() || typeResult.isError()) {
@@ -81,10 +142,8 @@ public class KeyDispatchCodec<K, V> extends MapCodec<V> {
     }
 
     @SuppressWarnings("unchecked")
-    private static <K, V> DataResult<? extends MapEncoder<V>> getCodec(final Function<? super V, ? extends DataResult<? extends K>> type, final Function<? super K, ? extends DataResult<? extends MapEncoder<? extends V>>> encoder, final V input) {
-        return type.apply(input)
-            .<MapEncoder<? extends V>>flatMap(key -> encoder.apply(key).map(Function.identity()))
-            .map(c -> ((MapEncoder<V>) c));
+    private DataResult<? extends MapEncoder<V>> resolveEncoder(final K key) {
+        return resolve(key).map(c -> (MapEncoder<V>) c);
     }
 
     @Override
@@ -10,6 +10,7 @@ import com.mojang.serialization.DynamicOps;
 import com.mojang.serialization.Lifecycle;
 import com.mojang.serialization.ListBuilder;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
@@ -60,6 +61,8 @@ public record ListCodec<E>(Codec<E> elementCodec, int minSize, int maxSize) impl
         private final Stream.Builder<T> failed = Stream.builder();
         private DataResult<Unit> result = INITIAL_RESULT;
         private int totalCount;
+        @Nullable
+        private DataResult.Error<?> firstError;
 
         private DecoderState(final DynamicOps<T> ops) {
             this.ops = ops;
@@ -67,17 +70,35 @@ public record ListCodec<E>(Codec<E> elementCodec, int minSize, int maxSize) impl
 
         public void accept(final T value) {
             totalCount++;
+            if (firstError != null) {
+                return;
+            }
             if (elements.size() >= maxSize) {
-                failed.add(value);
+                if (!ops.failFast()) {
+                    failed.add(value);
+                }
                 return;
             }
             final DataResult<Pair<E, T>> elementResult = elementCodec.decode(ops, value);
-            elementResult.error().ifPresent(error -> failed.add(value));
-            elementResult.resultOrPartial().ifPresent(pair -> elements.add(pair.getFirst()));
+            if (elementResult.isSuccess()) {
+                elements.add(elementResult.getOrThrow().getFirst());
+            } else if (ops.failFast()) {
+                firstError = elementResult.error().orElseThrow();
+                return;
+            } else {
+                failed.add(value);
+                elementResult.resultOrPartial().ifPresent(pair -> elements.add(pair.getFirst()));
+            }
             result = result.apply2stable((result, element) -> result, elementResult);
         }
 
         public DataResult<Pair<List<E>, T>> build() {
+            if (firstError != null) {
+                return firstError.withoutPartial();
+            }
+            if (ops.failFast() && totalCount > maxSize) {
+                return createTooLongError(totalCount);
+            }
             if (elements.size() < minSize) {
                 return createTooShortError(elements.size());
             }
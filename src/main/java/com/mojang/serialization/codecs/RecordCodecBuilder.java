@@ -2,6 +2,7 @@
 // Licensed under the MIT license.
 package com.mojang.serialization.codecs;
 
+import com.google.common.collect.ImmutableList;
 import com.mojang.datafixers.kinds.App;
 import com.mojang.datafixers.kinds.Applicative;
 import com.mojang.datafixers.kinds.K1;
@@ -19,8 +20,11 @@ import com.mojang.serialization.MapEncoder;
 import com.mojang.serialization.MapLike;
 import com.mojang.serialization.RecordBuilder;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu<O>, F> {
@@ -31,13 +35,17 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
     }
 
     private final Function<O, F> getter;
-    private final Function<O, MapEncoder<F>> encoder;
-    private final MapDecoder<F> decoder;
+    private final List<Field<O, ?>> fields;
+    private final Shape<F> shape;
 
-    private RecordCodecBuilder(final Function<O, F> getter, final Function<O, MapEncoder<F>> encoder, final MapDecoder<F> decoder) {
+    private RecordCodecBuilder(final Function<O, F> getter, final MapEncoder<F> encoder, final MapDecoder<F> decoder) {
+        this(getter, List.of(new Field<>(getter, encoder)), new Leaf<>(decoder));
+    }
+
+    private RecordCodecBuilder(final Function<O, F> getter, final List<Field<O, ?>> fields, final Shape<F> shape) {
         this.getter = getter;
-        this.encoder = encoder;
-        this.decoder = decoder;
+        this.fields = fields;
+        this.shape = shape;
     }
 
     public static <O> Instance<O> instance() {
@@ -49,11 +57,11 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
     }
 
     public static <O, F> RecordCodecBuilder<O, F> of(final Function<O, F> getter, final MapCodec<F> codec) {
-        return new RecordCodecBuilder<>(getter, o -> codec, codec);
+        return new RecordCodecBuilder<>(getter, codec, codec);
     }
 
     public static <O, F> RecordCodecBuilder<O, F> point(final F instance) {
-        return new RecordCodecBuilder<>(o -> instance, o -> Encoder.empty(), Decoder.unit(instance));
+        return new RecordCodecBuilder<>(o -> instance, Encoder.empty(), Decoder.unit(instance));
     }
 
     public static <O, F> RecordCodecBuilder<O, F> stable(final F instance) {
@@ -65,7 +73,7 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
     }
 
     public static <O, F> RecordCodecBuilder<O, F> point(final F instance, final Lifecycle lifecycle) {
-        return new RecordCodecBuilder<>(o -> instance, o -> Encoder.<F>empty().withLifecycle(lifecycle), Decoder.unit(instance).withLifecycle(lifecycle));
+        return new RecordCodecBuilder<>(o -> instance, Encoder.<F>empty().withLifecycle(lifecycle), Decoder.unit(instance).withLifecycle(lifecycle));
     }
 
     public static <O> Codec<O> create(final Function<Instance<O>, ? extends App<Mu<O>, O>> builder) {
@@ -79,11 +87,11 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
     public <E> RecordCodecBuilder<O, E> dependent(final Function<O, E> getter, final MapEncoder<E> encoder, final Function<? super F, ? extends MapDecoder<E>> decoderGetter) {
         return new RecordCodecBuilder<>(
             getter,
-            o -> encoder,
+            encoder,
             new MapDecoder.Implementation<E>() {
                 @Override
                 public <T> DataResult<E> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                    return decoder.decode(ops, input).map(decoderGetter).flatMap(decoder1 -> decoder1.decode(ops, input).map(Function.identity()));
+                    return shape.decode(ops, input).map(decoderGetter).flatMap(decoder1 -> decoder1.decode(ops, input).map(Function.identity()));
                 }
 
                 @Override
@@ -101,25 +109,30 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
 
     public static <O> MapCodec<O> build(final App<Mu<O>, O> builderBox) {
         final RecordCodecBuilder<O, O> builder = unbox(builderBox);
+        final Shape<O> shape = builder.shape;
+        final List<Field<O, ?>> fields = builder.fields;
         return new MapCodec<O>() {
             @Override
             public <T> DataResult<O> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                return builder.decoder.decode(ops, input);
+                return shape.decode(ops, input);
             }
 
             @Override
             public <T> RecordBuilder<T> encode(final O input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                return builder.encoder.apply(input).encode(input, ops, prefix);
+                for (int i = 0; i < fields.size(); i++) {
+                    fields.get(i).encode(input, ops, prefix);
+                }
+                return prefix;
             }
 
             @Override
             public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                return builder.decoder.keys(ops);
+                return shape.keys(ops);
             }
 
             @Override
             public String toString() {
-                return "RecordCodec[" + builder.decoder + "]";
+                return "RecordCodec[" + shape + "]";
             }
         };
     }
@@ -152,49 +165,26 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
 
                 return new RecordCodecBuilder<>(
                     o -> f.getter.apply(o).apply(a.getter.apply(o)),
-                    o -> {
-                        final MapEncoder<Function<A, R>> fEnc = f.encoder.apply(o);
-                        final MapEncoder<A> aEnc = a.encoder.apply(o);
-                        final A aFromO = a.getter.apply(o);
-
-                        return new MapEncoder.Implementation<R>() {
-                            @Override
-                            public <T> RecordBuilder<T> encode(final R input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                                fEnc.encode(a1 -> input, ops, prefix);
-                                aEnc.encode(aFromO, ops, prefix);
-                                return prefix;
-                            }
-
-                            @Override
-                            public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                                return Stream.concat(aEnc.keys(ops), fEnc.keys(ops));
-                            }
-
-                            @Override
-                            public String toString() {
-                                return fEnc + " * " + aEnc;
-                            }
-                        };
-                    },
-
-                    new MapDecoder.Implementation<R>() {
+                    Field.concat(f.fields, a.fields),
+                    new Shape<R>(a.shape, f.shape) {
                         @Override
-                        public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                            return a.decoder.decode(ops, input).flatMap(ar ->
-                                f.decoder.decode(ops, input).map(fr ->
-                                    fr.apply(ar)
-                                )
-                            );
+                        R construct(final DataResult<?>[] results, final int offset) {
+                            final A ar = a.shape.construct(results, offset);
+                            return f.shape.construct(results, offset + a.shape.size).apply(ar);
                         }
 
                         @Override
-                        public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                            return Stream.concat(a.decoder.keys(ops), f.decoder.keys(ops));
+                        <T> DataResult<R> combine(final DynamicOps<T> ops, final MapLike<T> input, final DataResult<?>[] results, final int offset) {
+                            return a.shape.combine(ops, input, results, offset).flatMap(ar ->
+                                f.shape.combine(ops, input, results, offset + a.shape.size).map(fr ->
+                                    fr.apply(ar)
+                                )
+                            );
                         }
 
                         @Override
                         public String toString() {
-                            return f.decoder + " * " + a.decoder;
+                            return f.shape + " * " + a.shape;
                         }
                     }
                 );
@@ -209,59 +199,24 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
 
             return new RecordCodecBuilder<>(
                 o -> function.getter.apply(o).apply(fa.getter.apply(o), fb.getter.apply(o)),
-                o -> {
-                    final MapEncoder<BiFunction<A, B, R>> fEncoder = function.encoder.apply(o);
-                    final MapEncoder<A> aEncoder = fa.encoder.apply(o);
-                    final A aFromO = fa.getter.apply(o);
-                    final MapEncoder<B> bEncoder = fb.encoder.apply(o);
-                    final B bFromO = fb.getter.apply(o);
-
-                    return new MapEncoder.Implementation<R>() {
-                        @Override
-                        public <T> RecordBuilder<T> encode(final R input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                            fEncoder.encode((a1, b1) -> input, ops, prefix);
-                            aEncoder.encode(aFromO, ops, prefix);
-                            bEncoder.encode(bFromO, ops, prefix);
-                            return prefix;
-                        }
-
-                        @Override
-                        public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                            return Stream.of(
-                                fEncoder.keys(ops),
-                                aEncoder.keys(ops),
-                                bEncoder.keys(ops)
-                            ).flatMap(Function.identity());
-                        }
-
-                        @Override
-                        public String toString() {
-                            return fEncoder + " * " + aEncoder + " * " + bEncoder;
-                        }
-                    };
-                },
-                new MapDecoder.Implementation<R>() {
+                Field.concat(function.fields, fa.fields, fb.fields),
+                new Shape<R>(function.shape, fa.shape, fb.shape) {
                     @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap2(
-                            function.decoder.decode(ops, input),
-                            fa.decoder.decode(ops, input),
-                            fb.decoder.decode(ops, input)
-                        ));
+                    R construct(final DataResult<?>[] results, final int offset) {
+                        final int aOffset = offset + function.shape.size;
+                        final int bOffset = aOffset + fa.shape.size;
+                        return function.shape.construct(results, offset).apply(fa.shape.construct(results, aOffset), fb.shape.construct(results, bOffset));
                     }
 
                     @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            fa.decoder.keys(ops),
-                            fb.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
-
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + fa.decoder + " * " + fb.decoder;
+                    <T> DataResult<R> combine(final DynamicOps<T> ops, final MapLike<T> input, final DataResult<?>[] results, final int offset) {
+                        final int aOffset = offset + function.shape.size;
+                        final int bOffset = aOffset + fa.shape.size;
+                        return DataResult.unbox(DataResult.instance().ap2(
+                            function.shape.combine(ops, input, results, offset),
+                            fa.shape.combine(ops, input, results, aOffset),
+                            fb.shape.combine(ops, input, results, bOffset)
+                        ));
                     }
                 }
             );
@@ -280,65 +235,31 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
                     f2.getter.apply(o),
                     f3.getter.apply(o)
                 ),
-                o -> {
-                    final MapEncoder<Function3<T1, T2, T3, R>> fEncoder = function.encoder.apply(o);
-                    final MapEncoder<T1> e1 = f1.encoder.apply(o);
-                    final T1 v1 = f1.getter.apply(o);
-                    final MapEncoder<T2> e2 = f2.encoder.apply(o);
-                    final T2 v2 = f2.getter.apply(o);
-                    final MapEncoder<T3> e3 = f3.encoder.apply(o);
-                    final T3 v3 = f3.getter.apply(o);
-
-                    return new MapEncoder.Implementation<R>() {
-                        @Override
-                        public <T> RecordBuilder<T> encode(final R input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                            fEncoder.encode((t1, t2, t3) -> input, ops, prefix);
-                            e1.encode(v1, ops, prefix);
-                            e2.encode(v2, ops, prefix);
-                            e3.encode(v3, ops, prefix);
-                            return prefix;
-                        }
-
-                        @Override
-                        public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                            return Stream.of(
-                                fEncoder.keys(ops),
-                                e1.keys(ops),
-                                e2.keys(ops),
-                                e3.keys(ops)
-                            ).flatMap(Function.identity());
-                        }
-
-                        @Override
-                        public String toString() {
-                            return fEncoder + " * " + e1 + " * " + e2 + " * " + e3;
-                        }
-                    };
-                },
-                new MapDecoder.Implementation<R>() {
+                Field.concat(function.fields, f1.fields, f2.fields, f3.fields),
+                new Shape<R>(function.shape, f1.shape, f2.shape, f3.shape) {
                     @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap3(
-                            function.decoder.decode(ops, input),
-                            f1.decoder.decode(ops, input),
-                            f2.decoder.decode(ops, input),
-                            f3.decoder.decode(ops, input)
-                        ));
+                    R construct(final DataResult<?>[] results, final int offset) {
+                        final int o1 = offset + function.shape.size;
+                        final int o2 = o1 + f1.shape.size;
+                        final int o3 = o2 + f2.shape.size;
+                        return function.shape.construct(results, offset).apply(
+                            f1.shape.construct(results, o1),
+                            f2.shape.construct(results, o2),
+                            f3.shape.construct(results, o3)
+                        );
                     }
 
                     @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            f1.decoder.keys(ops),
-                            f2.decoder.keys(ops),
-                            f3.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
-
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + f1.decoder + " * " + f2.decoder + " * " + f3.decoder;
+                    <T> DataResult<R> combine(final DynamicOps<T> ops, final MapLike<T> input, final DataResult<?>[] results, final int offset) {
+                        final int o1 = offset + function.shape.size;
+                        final int o2 = o1 + f1.shape.size;
+                        final int o3 = o2 + f2.shape.size;
+                        return DataResult.unbox(DataResult.instance().ap3(
+                            function.shape.combine(ops, input, results, offset),
+                            f1.shape.combine(ops, input, results, o1),
+                            f2.shape.combine(ops, input, results, o2),
+                            f3.shape.combine(ops, input, results, o3)
+                        ));
                     }
                 }
             );
@@ -359,71 +280,35 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
                     f3.getter.apply(o),
                     f4.getter.apply(o)
                 ),
-                o -> {
-                    final MapEncoder<Function4<T1, T2, T3, T4, R>> fEncoder = function.encoder.apply(o);
-                    final MapEncoder<T1> e1 = f1.encoder.apply(o);
-                    final T1 v1 = f1.getter.apply(o);
-                    final MapEncoder<T2> e2 = f2.encoder.apply(o);
-                    final T2 v2 = f2.getter.apply(o);
-                    final MapEncoder<T3> e3 = f3.encoder.apply(o);
-                    final T3 v3 = f3.getter.apply(o);
-                    final MapEncoder<T4> e4 = f4.encoder.apply(o);
-                    final T4 v4 = f4.getter.apply(o);
-
-                    return new MapEncoder.Implementation<R>() {
-                        @Override
-                        public <T> RecordBuilder<T> encode(final R input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
-                            fEncoder.encode((t1, t2, t3, t4) -> input, ops, prefix);
-                            e1.encode(v1, ops, prefix);
-                            e2.encode(v2, ops, prefix);
-                            e3.encode(v3, ops, prefix);
-                            e4.encode(v4, ops, prefix);
-                            return prefix;
-                        }
-
-                        @Override
-                        public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                            return Stream.of(
-                                fEncoder.keys(ops),
-                                e1.keys(ops),
-                                e2.keys(ops),
-                                e3.keys(ops),
-                                e4.keys(ops)
-                            ).flatMap(Function.identity());
-                        }
-
-                        @Override
-                        public String toString() {
-                            return fEncoder + " * " + e1 + " * " + e2 + " * " + e3 + " * " + e4;
-                        }
-                    };
-                },
-                new MapDecoder.Implementation<R>() {
+                Field.concat(function.fields, f1.fields, f2.fields, f3.fields, f4.fields),
+                new Shape<R>(function.shape, f1.shape, f2.shape, f3.shape, f4.shape) {
                     @Override
-                    public <T> DataResult<R> decode(final DynamicOps<T> ops, final MapLike<T> input) {
-                        return DataResult.unbox(DataResult.instance().ap4(
-                            function.decoder.decode(ops, input),
-                            f1.decoder.decode(ops, input),
-                            f2.decoder.decode(ops, input),
-                            f3.decoder.decode(ops, input),
-                            f4.decoder.decode(ops, input)
-                        ));
+                    R construct(final DataResult<?>[] results, final int offset) {
+                        final int o1 = offset + function.shape.size;
+                        final int o2 = o1 + f1.shape.size;
+                        final int o3 = o2 + f2.shape.size;
+                        final int o4 = o3 + f3.shape.size;
+                        return function.shape.construct(results, offset).apply(
+                            f1.shape.construct(results, o1),
+                            f2.shape.construct(results, o2),
+                            f3.shape.construct(results, o3),
+                            f4.shape.construct(results, o4)
+                        );
                     }
 
                     @Override
-                    public <T> Stream<T> keys(final DynamicOps<T> ops) {
-                        return Stream.of(
-                            function.decoder.keys(ops),
-                            f1.decoder.keys(ops),
-                            f2.decoder.keys(ops),
-                            f3.decoder.keys(ops),
-                            f4.decoder.keys(ops)
-                        ).flatMap(Function.identity());
-                    }
-
-                    @Override
-                    public String toString() {
-                        return function.decoder + " * " + f1.decoder + " * " + f2.decoder + " * " + f3.decoder + " * " + f4.decoder;
+                    <T> DataResult<R> combine(final DynamicOps<T> ops, final MapLike<T> input, final DataResult<?>[] results, final int offset) {
+                        final int o1 = offset + function.shape.size;
+                        final int o2 = o1 + f1.shape.size;
+                        final int o3 = o2 + f2.shape.size;
+                        final int o4 = o3 + f3.shape.size;
+                        return DataResult.unbox(DataResult.instance().ap4(
+                            function.shape.combine(ops, input, results, offset),
+                            f1.shape.combine(ops, input, results, o1),
+                            f2.shape.combine(ops, input, results, o2),
+                            f3.shape.combine(ops, input, results, o3),
+                            f4.shape.combine(ops, input, results, o4)
+                        ));
                     }
                 }
             );
@@ -435,26 +320,138 @@ public final class RecordCodecBuilder<O, F> implements App<RecordCodecBuilder.Mu
             final Function<O, T> getter = unbox.getter;
             return new RecordCodecBuilder<>(
                 getter.andThen(func),
-                o -> new MapEncoder.Implementation<R>() {
-                    private final MapEncoder<T> encoder = unbox.encoder.apply(o);
-
+                unbox.fields,
+                new Shape<R>(unbox.shape) {
                     @Override
-                    public <U> RecordBuilder<U> encode(final R input, final DynamicOps<U> ops, final RecordBuilder<U> prefix) {
-                        return encoder.encode(getter.apply(o), ops, prefix);
+                    R construct(final DataResult<?>[] results, final int offset) {
+                        return func.apply(unbox.shape.construct(results, offset));
                     }
 
                     @Override
-                    public <U> Stream<U> keys(final DynamicOps<U> ops) {
-                        return encoder.keys(ops);
+                    <U> DataResult<R> combine(final DynamicOps<U> ops, final MapLike<U> input, final DataResult<?>[] results, final int offset) {
+                        return unbox.shape.combine(ops, input, results, offset).map(func);
                     }
 
                     @Override
                     public String toString() {
-                        return encoder + "[mapped]";
+                        return unbox.shape + "[mapped]";
                     }
-                },
-                unbox.decoder.map(func)
+                }
             );
         }
     }
+
+    /**
+     * A leaf encoder with the getter that extracts its value, in the order the nested encoders would have run.
+     */
+    private record Field<O, F>(Function<O, F> getter, MapEncoder<F> encoder) {
+        @SafeVarargs
+        static <O> List<Field<O, ?>> concat(final List<Field<O, ?>>... parts) {
+            final ImmutableList.Builder<Field<O, ?>> builder = ImmutableList.builder();
+            for (final List<Field<O, ?>> part : parts) {
+                builder.addAll(part);
+            }
+            return builder.build();
+        }
+
+        <T> void encode(final O input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
+            encoder.encode(getter.apply(input), ops, prefix);
+        }
+    }
+
+    /**
+     * A builder's decoder: the flat sequence of its leaf decoders, and how lift1/ap2/ap3/ap4/map combine their results.
+     */
+    private abstract static class Shape<F> {
+        private final Shape<?>[] children;
+        private final MapDecoder<?>[] leaves;
+        private final int size;
+
+        private Shape(final MapDecoder<F> leaf) {
+            this.children = new Shape<?>[0];
+            this.leaves = new MapDecoder<?>[] {leaf};
+            this.size = 1;
+        }
+
+        private Shape(final Shape<?>... children) {
+            this.children = children;
+            this.leaves = Arrays.stream(children).flatMap(child -> Arrays.stream(child.leaves)).toArray(MapDecoder<?>[]::new);
+            this.size = leaves.length;
+        }
+
+        /**
+         * Runs the leaves in order into a single array and, when all of them succeed, applies the constructors once.
+         * At the first failure the results are recombined as nested decoders would, so later leaves are only decoded
+         * where those would have decoded them.
+         */
+        final <T> DataResult<F> decode(final DynamicOps<T> ops, final MapLike<T> input) {
+            final DataResult<?>[] results = new DataResult<?>[size];
+            Lifecycle lifecycle = Lifecycle.stable();
+            for (int i = 0; i < size; i++) {
+                final DataResult<?> result = leaves[i].decode(ops, input);
+                if (result instanceof final DataResult.Error<?> error) {
+                    if (ops.failFast()) {
+                        return error.withoutPartial();
+                    }
+                    results[i] = result;
+                    return combine(ops, input, results, 0);
+                }
+                results[i] = result;
+                lifecycle = lifecycle.add(result.lifecycle());
+            }
+            return DataResult.success(construct(results, 0), lifecycle);
+        }
+
+        /**
+         * Builds the value from leaf results starting at {@code offset}, all of which are successful.
+         */
+        abstract F construct(DataResult<?>[] results, int offset);
+
+        /**
+         * Combines leaf results starting at {@code offset} with the same semantics as nested decoders, decoding the
+         * leaves that have no result yet.
+         */
+        abstract <T> DataResult<F> combine(DynamicOps<T> ops, MapLike<T> input, DataResult<?>[] results, int offset);
+
+        <T> Stream<T> keys(final DynamicOps<T> ops) {
+            return Arrays.stream(children).flatMap(child -> child.keys(ops));
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.stream(children).map(Object::toString).collect(Collectors.joining(" * "));
+        }
+    }
+
+    private static final class Leaf<F> extends Shape<F> {
+        private final MapDecoder<F> decoder;
+
+        private Leaf(final MapDecoder<F> decoder) {
+            super(decoder);
+            this.decoder = decoder;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        F construct(final DataResult<?>[] results, final int offset) {
+            return ((DataResult.Success<F>) results[offset]).value();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        <T> DataResult<F> combine(final DynamicOps<T> ops, final MapLike<T> input, final DataResult<?>[] results, final int offset) {
+            final DataResult<?> result = results[offset];
+            return result != null ? (DataResult<F>) result : decoder.decode(ops, input);
+        }
+
+        @Override
+        <T> Stream<T> keys(final DynamicOps<T> ops) {
+            return decoder.keys(ops);
+        }
+
+        @Override
+        public String toString() {
+            return decoder.toString();
+        }
+    }
 }
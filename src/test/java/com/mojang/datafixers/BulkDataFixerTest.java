@@ -0,0 +1,144 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.serialization.Dynamic;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BulkDataFixerTest {
+    private static final int TASKS = 64;
+    private static final String FIELD = "Field" + SampleSchemas.VERSIONS;
+
+    private static List<BulkDataFixer.Task<JsonElement>> tasks(final int... versions) {
+        final List<BulkDataFixer.Task<JsonElement>> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            tasks.add(new BulkDataFixer.Task<>(SampleSchemas.ENTITY, versions[i % versions.length], SampleSchemas.entity("zombie", i, 1)));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void updateOrdered_keepsInputOrder() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final BulkDataFixer bulk = new BulkDataFixer(SampleSchemas.builder().build().fixer(), executor, 3);
+            final List<Integer> fields = new ArrayList<>();
+            bulk.updateOrdered(tasks(SampleSchemas.FIRST_VERSION).iterator(), SampleSchemas.VERSIONS, result -> fields.add(result.get(FIELD).asInt(-1)));
+
+            assertEquals(TASKS, fields.size());
+            for (int i = 0; i < TASKS; i++) {
+                assertEquals(i, (int) fields.get(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void updateUnordered_staysWithinWindow() {
+        final int window = 2;
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final BulkDataFixer bulk = new BulkDataFixer(SampleSchemas.builder().build().fixer(), executor, window);
+            final AtomicInteger taken = new AtomicInteger();
+            final AtomicInteger completed = new AtomicInteger();
+            final AtomicInteger maxInFlight = new AtomicInteger();
+            final Iterator<BulkDataFixer.Task<JsonElement>> tasks = tasks(SampleSchemas.FIRST_VERSION).iterator();
+            final Iterator<BulkDataFixer.Task<JsonElement>> counted = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return tasks.hasNext();
+                }
+
+                @Override
+                public BulkDataFixer.Task<JsonElement> next() {
+                    maxInFlight.accumulateAndGet(taken.getAndIncrement() - completed.get(), Math::max);
+                    return tasks.next();
+                }
+            };
+            bulk.updateUnordered(counted, SampleSchemas.VERSIONS, (task, result) -> completed.incrementAndGet());
+
+            assertEquals(TASKS, completed.get());
+            assertTrue("In flight: " + maxInFlight.get(), maxInFlight.get() <= window);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void updaters_areSharedPerTypeAndVersions() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final CountingFixer fixer = new CountingFixer(SampleSchemas.builder().build().fixer());
+            final BulkDataFixer bulk = new BulkDataFixer(fixer, executor, 4);
+            final int secondVersion = SampleSchemas.FIRST_VERSION + 1;
+            bulk.updateOrdered(tasks(SampleSchemas.FIRST_VERSION, secondVersion).iterator(), SampleSchemas.VERSIONS, result -> {});
+            bulk.updateUnordered(tasks(SampleSchemas.FIRST_VERSION, secondVersion).iterator(), SampleSchemas.VERSIONS, (task, result) -> {});
+            assertEquals(2, fixer.updaters.get());
+
+            bulk.updateOrdered(tasks(SampleSchemas.FIRST_VERSION).iterator(), SampleSchemas.VERSIONS - 1, result -> {});
+            assertEquals(3, fixer.updaters.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void update_fromWorkerOfSameExecutor() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final BulkDataFixer bulk = new BulkDataFixer(SampleSchemas.builder().build().fixer(), executor, 2);
+            final AtomicInteger completed = new AtomicInteger();
+            // The only worker waits on updates queued behind it, so it has to run them itself
+            final Future<?> future = executor.submit(() -> {
+                bulk.updateOrdered(tasks(SampleSchemas.FIRST_VERSION).iterator(), SampleSchemas.VERSIONS, result -> completed.incrementAndGet());
+                bulk.updateUnordered(tasks(SampleSchemas.FIRST_VERSION).iterator(), SampleSchemas.VERSIONS, (task, result) -> completed.incrementAndGet());
+            });
+            future.get(30, TimeUnit.SECONDS);
+
+            assertEquals(2 * TASKS, completed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class CountingFixer implements DataFixer {
+        private final DataFixer delegate;
+        private final AtomicInteger updaters = new AtomicInteger();
+
+        private CountingFixer(final DataFixer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <T> Dynamic<T> update(final DSL.TypeReference type, final Dynamic<T> input, final int version, final int newVersion) {
+            return delegate.update(type, input, version, newVersion);
+        }
+
+        @Override
+        public <T> UnaryOperator<Dynamic<T>> updater(final DSL.TypeReference type, final int version, final int newVersion) {
+            updaters.incrementAndGet();
+            return delegate.updater(type, version, newVersion);
+        }
+
+        @Override
+        public Schema getSchema(final int key) {
+            return delegate.getSchema(key);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataFixerProfilerTest {
+    @After
+    public void stopProfiler() {
+        final DataFixerProfiler profiler = DataFixerProfiler.active();
+        if (profiler != null) {
+            profiler.stop();
+        }
+    }
+
+    private static Map<String, Long> invocations(final DataFixerProfiler profiler) {
+        return profiler.snapshot().entries().stream().collect(Collectors.toMap(DataFixerProfiler.Entry::name, DataFixerProfiler.Entry::invocations));
+    }
+
+    private static void update(final DataFixer fixer) {
+        fixer.update(SampleSchemas.ENTITY, SampleSchemas.entity("zombie", 1, 1), SampleSchemas.FIRST_VERSION, SampleSchemas.VERSIONS);
+    }
+
+    @Test
+    public void wrap_onlyWhileProfilerIsActive() {
+        final Function<String, String> function = String::trim;
+        assertSame(function, DataFixerProfiler.wrap("trim", function));
+
+        final DataFixerProfiler profiler = DataFixerProfiler.start(false);
+        final Function<String, String> wrapped = DataFixerProfiler.wrap("trim", function);
+        assertNotSame(function, wrapped);
+        assertEquals("a", wrapped.apply(" a "));
+        assertEquals(Map.of("trim", 1L), invocations(profiler));
+
+        profiler.reset();
+        assertEquals(List.of(), profiler.snapshot().entries());
+        wrapped.apply(" b ");
+        wrapped.apply(" c ");
+        assertEquals(Map.of("trim", 2L), invocations(profiler));
+
+        profiler.stop();
+        wrapped.apply(" d ");
+        assertEquals(Map.of("trim", 2L), invocations(profiler));
+    }
+
+    @Test
+    public void update_recordsEveryFix() {
+        final DataFixerProfiler profiler = DataFixerProfiler.start(true);
+        update(SampleSchemas.builder().build().fixer());
+        profiler.stop();
+
+        final Map<String, Long> invocations = invocations(profiler);
+        for (int version = SampleSchemas.FIRST_VERSION + 1; version <= SampleSchemas.VERSIONS; version++) {
+            assertEquals(1L, (long) invocations.get("Rename zombie Field" + (version - 1)));
+            assertEquals(1L, (long) invocations.get("Item count " + version));
+        }
+        for (final DataFixerProfiler.Entry entry : profiler.snapshot().entries()) {
+            assertTrue(entry.nanos() >= 0);
+            assertTrue(!profiler.tracksAllocations() || entry.allocatedBytes() > 0);
+        }
+    }
+
+    @Test
+    public void update_notRecordedWhenBoundWithoutProfiler() {
+        final DataFixer fixer = SampleSchemas.builder().build().fixer();
+        update(fixer);
+
+        final DataFixerProfiler profiler = DataFixerProfiler.start(false);
+        update(fixer);
+        assertEquals(Map.of(), invocations(profiler));
+    }
+}
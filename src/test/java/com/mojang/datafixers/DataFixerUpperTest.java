@@ -0,0 +1,133 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.mojang.datafixers.types.RewriteCache;
+import com.mojang.datafixers.types.Type;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JavaOps;
+import com.mojang.serialization.JsonOps;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataFixerUpperTest {
+    private static DataFixer fixer(final boolean compileFunctions) {
+        final DataFixerBuilder builder = SampleSchemas.builder();
+        builder.setCompileFunctions(compileFunctions);
+        return builder.build().fixer();
+    }
+
+    private static Dynamic<JsonElement> update(final DataFixer fixer, final Dynamic<JsonElement> input) {
+        return fixer.update(SampleSchemas.ENTITY, input, SampleSchemas.FIRST_VERSION, SampleSchemas.VERSIONS);
+    }
+
+    @Test
+    public void update_appliesAllFixes() {
+        final Dynamic<JsonElement> result = update(fixer(false), SampleSchemas.entity("zombie", 7, 1));
+
+        assertEquals(7, result.get("Field" + SampleSchemas.VERSIONS).asInt(-1));
+        assertEquals(SampleSchemas.VERSIONS, result.get("Hand").get("Count").asInt(-1));
+    }
+
+    @Test
+    public void compiledFunctions_matchEvaluatedFunctions() {
+        final DataFixer evaluated = fixer(false);
+        final DataFixer compiled = fixer(true);
+        for (final String id : new String[] {"zombie", "pig"}) {
+            final Dynamic<JsonElement> input = SampleSchemas.entity(id, 3, 5);
+            final Dynamic<JsonElement> expected = update(evaluated, input);
+            // The second update runs the compiled function remembered by the first one
+            assertEquals(expected, update(compiled, input));
+            assertEquals(expected, update(compiled, input));
+        }
+    }
+
+    @Test
+    public void rewriteCache_isOwnedByFixer() {
+        final DataFixerBuilder.Result first = SampleSchemas.builder().build();
+        final DataFixerBuilder.Result second = SampleSchemas.builder().build();
+        update(first.fixer(), SampleSchemas.entity("zombie", 1, 1));
+
+        assertTrue(first.rewriteCache().stats().size() > 0);
+        assertEquals(0, second.rewriteCache().stats().size());
+    }
+
+    @Test
+    public void rewriteCache_recordsStatsOnlyWhenAsked() {
+        for (final boolean recordStats : new boolean[] {false, true}) {
+            final DataFixerBuilder builder = SampleSchemas.builder();
+            builder.setRewriteCache(RewriteCache.bounded(1000, recordStats));
+            final DataFixerBuilder.Result result = builder.build();
+            update(result.fixer(), SampleSchemas.entity("zombie", 1, 1));
+            update(result.fixer(), SampleSchemas.entity("pig", 1, 1));
+
+            final RewriteCache.Stats stats = result.rewriteCache().stats();
+            assertTrue(stats.size() > 0);
+            assertEquals(recordStats, stats.hitCount() > 0 && stats.missCount() > 0);
+        }
+    }
+
+    @Test
+    public void updateAll_matchesUpdate() {
+        final DataFixer fixer = fixer(false);
+        final List<Dynamic<JsonElement>> inputs = List.of(
+            SampleSchemas.entity("zombie", 1, 1),
+            SampleSchemas.entity("pig", 2, 3),
+            SampleSchemas.entity("zombie", 3, 5)
+        );
+        final AtomicInteger consumed = new AtomicInteger();
+        final var updated = fixer.updateAll(SampleSchemas.ENTITY, inputs.stream().peek(input -> consumed.incrementAndGet()), SampleSchemas.FIRST_VERSION, SampleSchemas.VERSIONS);
+        assertEquals(0, consumed.get());
+
+        assertEquals(inputs.stream().map(input -> update(fixer, input)).collect(Collectors.toList()), updated.collect(Collectors.toList()));
+        assertEquals(inputs.size(), consumed.get());
+    }
+
+    @Test
+    public void updater_handlesMixedOps() {
+        final DataFixer fixer = fixer(false);
+        final UnaryOperator<Dynamic<Object>> javaUpdater = fixer.updater(SampleSchemas.ENTITY, SampleSchemas.FIRST_VERSION, SampleSchemas.VERSIONS);
+        final UnaryOperator<Dynamic<JsonElement>> jsonUpdater = fixer.updater(SampleSchemas.ENTITY, SampleSchemas.FIRST_VERSION, SampleSchemas.VERSIONS);
+        final Dynamic<JsonElement> input = SampleSchemas.entity("zombie", 4, 2);
+
+        final Dynamic<JsonElement> expected = update(fixer, input);
+        assertEquals(expected, jsonUpdater.apply(input));
+        // Compared as JSON, which doesn't distinguish between the number types Java values are read back as
+        assertEquals(expected, javaUpdater.apply(input.convert(JavaOps.INSTANCE)).convert(JsonOps.INSTANCE));
+        final UnaryOperator<Dynamic<JsonElement>> nop = fixer.updater(SampleSchemas.ENTITY, SampleSchemas.VERSIONS, SampleSchemas.VERSIONS);
+        assertSame(input, nop.apply(input));
+    }
+
+    @Test
+    public void readAndWriter_isReusable() {
+        final DataFixerUpper fixer = (DataFixerUpper) fixer(false);
+        final Type<?> type = fixer.getType(SampleSchemas.ENTITY, SampleSchemas.FIRST_VERSION);
+        final Type<?> newType = fixer.getType(SampleSchemas.ENTITY, SampleSchemas.VERSIONS);
+        final TypeRewriteRule rule = fixer.getRule(SampleSchemas.FIRST_VERSION, SampleSchemas.VERSIONS);
+        final Function<JsonElement, DataResult<JsonElement>> readAndWriter = type.readAndWriter(JsonOps.INSTANCE, newType, rule, DataFixerUpper.OPTIMIZATION_RULE);
+
+        for (int i = 0; i < 3; i++) {
+            final Dynamic<JsonElement> input = SampleSchemas.entity("zombie", i, i);
+            final Dynamic<JsonElement> result = new Dynamic<>(JsonOps.INSTANCE, readAndWriter.apply(input.getValue()).getOrThrow());
+            assertEquals(i, result.get("Field" + SampleSchemas.VERSIONS).asInt(-1));
+            assertEquals(i + SampleSchemas.VERSIONS - SampleSchemas.FIRST_VERSION, result.get("Hand").get("Count").asInt(-1));
+            assertEquals(result.getValue(), type.readAndWrite(JsonOps.INSTANCE, newType, rule, DataFixerUpper.OPTIMIZATION_RULE, input.getValue()).getOrThrow());
+        }
+
+        final JsonElement input = SampleSchemas.entity("pig", 1, 1).getValue();
+        assertSame(input, type.readAndWriter(JsonOps.INSTANCE, type, TypeRewriteRule.nop(), DataFixerUpper.OPTIMIZATION_RULE).apply(input).getOrThrow());
+        // The rewritten entity type is not the expected one
+        assertTrue(type.readAndWriter(JsonOps.INSTANCE, fixer.getType(SampleSchemas.ITEM, SampleSchemas.FIRST_VERSION), rule, DataFixerUpper.OPTIMIZATION_RULE).apply(input).isError());
+    }
+}
@@ -0,0 +1,128 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.templates.TypeTemplate;
+import com.mojang.serialization.Dynamic;
+import it.unimi.dsi.fastutil.ints.Int2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class OptimizationCacheTest {
+    private static final int VERSION = SampleSchemas.FIRST_VERSION;
+    private static final Set<DataFixerUpper.UpdateKey> NOPS = Set.of(
+        new DataFixerUpper.UpdateKey("entity", 1, 4),
+        new DataFixerUpper.UpdateKey("item", 2, 4)
+    );
+
+    private static Int2ObjectSortedMap<Schema> schemas(final Schema schema) {
+        final Int2ObjectSortedMap<Schema> schemas = new Int2ObjectAVLTreeMap<>();
+        schemas.put(schema.getVersionKey(), schema);
+        return schemas;
+    }
+
+    private static String fingerprint(final int dataVersion, final Schema schema, final List<DataFix> fixes, final String salt) {
+        return OptimizationCache.fingerprint(dataVersion, schemas(schema), fixes, salt);
+    }
+
+    @Test
+    public void fingerprint_coversSchemasFixesVersionAndSalt() {
+        final Schema schema = new SampleSchemas.BaseSchema(DataFixUtils.makeKey(VERSION), null);
+        final Schema fixSchema = new Schema(DataFixUtils.makeKey(VERSION + 1), schema);
+        final List<DataFix> fixes = List.of(new NopFix(fixSchema));
+        final String fingerprint = fingerprint(4, schema, fixes, "build");
+
+        assertEquals(fingerprint, fingerprint(4, new SampleSchemas.BaseSchema(DataFixUtils.makeKey(VERSION), null), List.of(new NopFix(fixSchema)), "build"));
+        assertNotEquals(fingerprint, fingerprint(4, schema, fixes, "other build"));
+        assertNotEquals(fingerprint, fingerprint(5, schema, fixes, "build"));
+        assertNotEquals(fingerprint, fingerprint(4, schema, List.of(new OtherNopFix(fixSchema)), "build"));
+        assertNotEquals(fingerprint, fingerprint(4, schema, List.of(new NopFix(new Schema(DataFixUtils.makeKey(VERSION + 2), schema))), "build"));
+        assertNotEquals(fingerprint, fingerprint(4, new CowSchema(DataFixUtils.makeKey(VERSION)), fixes, "build"));
+    }
+
+    @Test
+    public void readWrite_roundTripsForSameFingerprint() throws IOException {
+        final Path file = Files.createTempDirectory("dfu").resolve("cache").resolve("nops.json");
+        try {
+            OptimizationCache.write(file, "fingerprint", NOPS);
+
+            assertEquals(NOPS, OptimizationCache.read(file, "fingerprint"));
+            assertEquals(Set.of(), OptimizationCache.read(file, "other fingerprint"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void read_ignoresMissingAndMalformedFiles() throws IOException {
+        final Path file = Files.createTempFile("dfu", ".json");
+        try {
+            Files.delete(file);
+            assertEquals(Set.of(), OptimizationCache.read(file, "fingerprint"));
+
+            Files.writeString(file, "{\"fingerprint\":\"fingerprint\",\"nops\":[{\"type\":1}]}", StandardCharsets.UTF_8);
+            assertEquals(Set.of(), OptimizationCache.read(file, "fingerprint"));
+
+            Files.writeString(file, "{not json", StandardCharsets.UTF_8);
+            assertEquals(Set.of(), OptimizationCache.read(file, "fingerprint"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void knownNops_skipUpdates() {
+        final DataFixerUpper fixer = (DataFixerUpper) SampleSchemas.builder().build().fixer();
+        final Dynamic<JsonElement> input = SampleSchemas.entity("zombie", 1, 1);
+        fixer.addKnownNops(NOPS);
+
+        assertEquals(NOPS, fixer.knownNops());
+        assertSame(input, fixer.update(SampleSchemas.ENTITY, input, 1, 4));
+        assertNotEquals(input, fixer.update(SampleSchemas.ENTITY, input, 1, 3));
+    }
+
+    private static class NopFix extends DataFix {
+        NopFix(final Schema outputSchema) {
+            super(outputSchema, false);
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            return TypeRewriteRule.nop();
+        }
+    }
+
+    private static class OtherNopFix extends NopFix {
+        OtherNopFix(final Schema outputSchema) {
+            super(outputSchema);
+        }
+    }
+
+    private static class CowSchema extends SampleSchemas.BaseSchema {
+        CowSchema(final int versionKey) {
+            super(versionKey, null);
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerEntities(final Schema schema) {
+            final Map<String, Supplier<TypeTemplate>> entities = super.registerEntities(schema);
+            schema.registerSimple(entities, "cow");
+            return entities;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.mojang.datafixers.functions.FunctionCompiler;
+import com.mojang.datafixers.functions.Functions;
+import com.mojang.datafixers.functions.PointFree;
+import com.mojang.datafixers.types.Type;
+import com.mojang.datafixers.types.families.Algebra;
+import com.mojang.datafixers.types.families.ListAlgebra;
+import com.mojang.datafixers.types.families.RecursiveTypeFamily;
+import com.mojang.datafixers.types.templates.RecursivePoint;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.FailFastOps;
+import com.mojang.serialization.JsonOps;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PointFreeTest {
+    private static PointFree<Function<Integer, Integer>> increment(final AtomicInteger bindings) {
+        return Functions.fun("increment", ops -> {
+            bindings.incrementAndGet();
+            return x -> x + 1;
+        }, DSL.intType(), DSL.intType());
+    }
+
+    @Test
+    public void evalCached_bindsOncePerOps() {
+        final AtomicInteger bindings = new AtomicInteger();
+        final PointFree<Function<Integer, Integer>> function = increment(bindings);
+
+        final Function<Integer, Integer> json = function.evalCached().apply(JsonOps.INSTANCE);
+        assertSame(json, function.evalCached().apply(JsonOps.INSTANCE));
+        assertEquals(1, bindings.get());
+
+        final Function<Integer, Integer> compressed = function.evalCached().apply(JsonOps.COMPRESSED);
+        assertSame(compressed, function.evalCached().apply(JsonOps.COMPRESSED));
+        assertSame(json, function.evalCached().apply(JsonOps.INSTANCE));
+        assertEquals(2, bindings.get());
+        assertEquals(2, (int) compressed.apply(1));
+    }
+
+    @Test
+    public void evalCached_keepsCommonOpsAfterManyOthers() {
+        final AtomicInteger bindings = new AtomicInteger();
+        final PointFree<Function<Integer, Integer>> function = increment(bindings);
+        function.evalCached().apply(JsonOps.INSTANCE);
+
+        // Kept reachable, so none of their slots can be reused
+        final DynamicOps<?>[] perCall = new DynamicOps<?>[6];
+        for (int i = 0; i < perCall.length; i++) {
+            perCall[i] = FailFastOps.of(JsonOps.INSTANCE);
+            assertEquals(2, (int) function.evalCached().apply(perCall[i]).apply(1));
+        }
+        assertEquals(1 + perCall.length, bindings.get());
+
+        function.evalCached().apply(JsonOps.INSTANCE);
+        assertEquals(1 + perCall.length, bindings.get());
+
+        function.evalCached().apply(JsonOps.COMPRESSED);
+        function.evalCached().apply(JsonOps.COMPRESSED);
+        assertEquals(2 + perCall.length, bindings.get());
+    }
+
+    @Test
+    public void evalCached_doesNotKeepOpsAlive() {
+        final AtomicInteger bindings = new AtomicInteger();
+        final PointFree<Function<Integer, Integer>> function = increment(bindings);
+        final List<WeakReference<DynamicOps<?>>> perCall = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final DynamicOps<?> ops = FailFastOps.of(JsonOps.INSTANCE);
+            function.evalCached().apply(ops);
+            perCall.add(new WeakReference<>(ops));
+        }
+        for (int i = 0; i < 20 && perCall.stream().anyMatch(reference -> reference.get() != null); i++) {
+            System.gc();
+        }
+        assertTrue(perCall.stream().allMatch(reference -> reference.get() == null));
+
+        // The slots of the collected ops are free again
+        final DynamicOps<?> live = FailFastOps.of(JsonOps.INSTANCE);
+        for (final DynamicOps<?> ops : List.of(JsonOps.INSTANCE, JsonOps.COMPRESSED, live, JsonOps.INSTANCE, JsonOps.COMPRESSED, live)) {
+            function.evalCached().apply(ops);
+        }
+        assertEquals(perCall.size() + 3, bindings.get());
+    }
+
+    @Test
+    public void compile_isRememberedSeparately() {
+        final AtomicInteger bindings = new AtomicInteger();
+        final PointFree<Function<Integer, Integer>> function = Functions.comp(increment(bindings), increment(bindings));
+
+        final Function<Integer, Integer> compiled = FunctionCompiler.compile(function, JsonOps.INSTANCE);
+        assertSame(compiled, FunctionCompiler.compile(function, JsonOps.INSTANCE));
+        assertEquals(3, (int) compiled.apply(1));
+
+        final Function<Integer, Integer> evaluated = function.evalCached().apply(JsonOps.INSTANCE);
+        assertNotSame(compiled, evaluated);
+        assertSame(evaluated, function.evalCached().apply(JsonOps.INSTANCE));
+        assertEquals(3, (int) evaluated.apply(1));
+        // Both share the functions bound for the composed terms
+        assertEquals(2, bindings.get());
+    }
+
+    @Test
+    public void fold_resolvesAlgebraOnce() {
+        final RecursivePoint.RecursivePointType<?> entity = (RecursivePoint.RecursivePointType<?>) new SampleSchemas.BaseSchema(DataFixUtils.makeKey(SampleSchemas.FIRST_VERSION), null).getTypeRaw(SampleSchemas.ENTITY);
+        final RecursiveTypeFamily family = entity.family();
+        final List<RewriteResult<?, ?>> views = new ArrayList<>();
+        for (int i = 0; i < family.size(); i++) {
+            views.add(RewriteResult.create(family.apply(i).in(), new BitSet()));
+        }
+        final CountingAlgebra algebra = new CountingAlgebra(new ListAlgebra("identity", views));
+        final RewriteResult<?, ?> fold = family.fold(algebra, family).apply(entity.index());
+        final Function<Object, Object> function = bind(fold.view().function());
+
+        final Object rider = read(entity, SampleSchemas.entity("pig", 2, 1));
+        final Object mount = read(entity, withPassenger(SampleSchemas.entity("zombie", 1, 1), SampleSchemas.entity("pig", 2, 1)));
+        assertEquals(mount, function.apply(mount));
+        final int calls = algebra.calls.get();
+
+        assertEquals(rider, function.apply(rider));
+        assertEquals(mount, function.apply(mount));
+        assertSame(function, bind(fold.view().function()));
+        assertEquals(calls, algebra.calls.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> bind(final PointFree<? extends Function<?, ?>> function) {
+        return (Function<Object, Object>) function.evalCached().apply(JsonOps.INSTANCE);
+    }
+
+    private static Object read(final Type<?> type, final Dynamic<JsonElement> input) {
+        return type.readTyped(input).getOrThrow().getFirst().getValue();
+    }
+
+    private static Dynamic<JsonElement> withPassenger(final Dynamic<JsonElement> entity, final Dynamic<JsonElement> passenger) {
+        return entity.set("Passengers", entity.createList(Stream.of(passenger)));
+    }
+
+    private static final class CountingAlgebra implements Algebra {
+        private final Algebra delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private CountingAlgebra(final Algebra delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public RewriteResult<?, ?> apply(final int index) {
+            calls.incrementAndGet();
+            return delegate.apply(index);
+        }
+
+        @Override
+        public String toString(final int level) {
+            return delegate.toString(level);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT license.
+package com.mojang.datafixers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.datafixers.schemas.Schema;
+import com.mojang.datafixers.types.templates.TypeTemplate;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JsonOps;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Entities holding an item and riding each other, where every version renames a field of one entity kind and bumps the item count.
+ */
+final class SampleSchemas {
+    static final DSL.TypeReference ENTITY = () -> "entity";
+    static final DSL.TypeReference ITEM = () -> "item";
+    static final int FIRST_VERSION = 1;
+    static final int VERSIONS = 4;
+
+    private SampleSchemas() {
+    }
+
+    static DataFixerBuilder builder() {
+        final DataFixerBuilder builder = new DataFixerBuilder(VERSIONS);
+        builder.addSchema(FIRST_VERSION, BaseSchema::new);
+        for (int version = FIRST_VERSION + 1; version <= VERSIONS; version++) {
+            final Schema schema = builder.addSchema(version, Schema::new);
+            builder.addFixer(new RenameFieldFix(schema, "zombie", "Field" + (version - 1), "Field" + version));
+            builder.addFixer(new ItemCountFix(schema));
+        }
+        return builder;
+    }
+
+    static Dynamic<JsonElement> entity(final String id, final int field, final int count) {
+        final JsonObject item = new JsonObject();
+        item.addProperty("id", "stick");
+        item.addProperty("Count", count);
+        final JsonObject entity = new JsonObject();
+        entity.addProperty("id", id);
+        entity.addProperty("Field" + FIRST_VERSION, field);
+        entity.add("Hand", item);
+        return new Dynamic<>(JsonOps.INSTANCE, entity);
+    }
+
+    static class BaseSchema extends Schema {
+        BaseSchema(final int versionKey, final Schema parent) {
+            super(versionKey, parent);
+        }
+
+        @Override
+        public void registerTypes(final Schema schema, final Map<String, Supplier<TypeTemplate>> entityTypes, final Map<String, Supplier<TypeTemplate>> blockEntityTypes) {
+            schema.registerType(true, ENTITY, () -> DSL.taggedChoiceLazy("id", DSL.string(), entityTypes));
+            schema.registerType(false, ITEM, DSL::remainder);
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerEntities(final Schema schema) {
+            final Map<String, Supplier<TypeTemplate>> entities = new HashMap<>();
+            for (final String name : new String[] {"zombie", "pig"}) {
+                schema.register(entities, name, () -> DSL.optionalFields(
+                    "Passengers", DSL.list(ENTITY.in(schema)),
+                    "Hand", ITEM.in(schema)
+                ));
+            }
+            return entities;
+        }
+
+        @Override
+        public Map<String, Supplier<TypeTemplate>> registerBlockEntities(final Schema schema) {
+            return new HashMap<>();
+        }
+    }
+
+    private static class RenameFieldFix extends DataFix {
+        private final String entity;
+        private final String from;
+        private final String to;
+
+        RenameFieldFix(final Schema outputSchema, final String entity, final String from, final String to) {
+            super(outputSchema, false);
+            this.entity = entity;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            return fixTypeEverywhereTyped("Rename " + entity + " " + from, getInputSchema().getChoiceType(ENTITY, entity),
+                typed -> typed.update(DSL.remainderFinder(), this::rename)
+            );
+        }
+
+        private <T> Dynamic<T> rename(final Dynamic<T> dynamic) {
+            final Optional<Dynamic<T>> value = dynamic.get(from).result();
+            return value.map(v -> dynamic.remove(from).set(to, v)).orElse(dynamic);
+        }
+    }
+
+    private static class ItemCountFix extends DataFix {
+        ItemCountFix(final Schema outputSchema) {
+            super(outputSchema, false);
+        }
+
+        @Override
+        protected TypeRewriteRule makeRule() {
+            return fixTypeEverywhereTyped("Item count " + DataFixUtils.getVersion(getVersionKey()), getInputSchema().getType(ITEM),
+                typed -> typed.update(DSL.remainderFinder(), dynamic -> dynamic.update("Count", count -> count.createInt(count.asInt(0) + 1)))
+            );
+        }
+    }
+}
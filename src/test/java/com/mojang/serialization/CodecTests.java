@@ -3,23 +3,39 @@
 package com.mojang.serialization;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.mojang.datafixers.DSL;
+import com.mojang.datafixers.DataFixUtils;
 import com.mojang.datafixers.util.Either;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.datafixers.util.Unit;
+import com.mojang.serialization.codecs.KeyDispatchCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
 import org.junit.Test;
 
 import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class CodecTests {
     private static final Codec<String> TO_LOWER_CASE = Codec.STRING.xmap(s -> s.toLowerCase(Locale.ROOT), s -> s.toLowerCase(Locale.ROOT));
@@ -190,6 +206,52 @@ public class CodecTests {
         );
     }
 
+    @Test
+    public void longStream_json() {
+        final DataResult<long[]> decoded = Codec.LONG_STREAM.parse(JsonOps.INSTANCE, JsonParser.parseString("[1, 2, 9007199254740993]")).map(LongStream::toArray);
+        assertArrayEquals(new long[] {1, 2, 9007199254740993L}, decoded.getOrThrow());
+
+        assertTrue(Codec.LONG_STREAM.parse(JsonOps.INSTANCE, JsonParser.parseString("[1, \"2\", 3]")).isError());
+        assertTrue(Codec.LONG_STREAM.parse(JsonOps.COMPRESSED, JsonParser.parseString("[1, \"2\", 3]")).isSuccess());
+    }
+
+    @Test
+    public void list_failFast() {
+        final Codec<List<String>> codec = Codec.STRING.listOf();
+        final DataResult<List<String>> result = codec.parse(FailFastOps.of(JavaOps.INSTANCE), List.of("foo", 2, "baz", false));
+        assertTrue(result.isError());
+        assertTrue(result.resultOrPartial().isEmpty());
+        assertEquals(
+            codec.parse(JavaOps.INSTANCE, List.of(2)).error().orElseThrow().message(),
+            result.error().orElseThrow().message()
+        );
+
+        assertEquals(List.of("foo", "bar"), codec.parse(FailFastOps.of(JavaOps.INSTANCE), List.of("foo", "bar")).getOrThrow());
+    }
+
+    @Test
+    public void mapLike_forEntries() {
+        for (final int size : new int[] {3, 40}) {
+            final List<Pair<Object, Object>> entries = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                entries.add(Pair.of("key" + i, i));
+            }
+            final MapLike<Object> map = MapLike.forEntries(entries, JavaOps.INSTANCE);
+            assertEquals(2, map.get("key2"));
+            assertEquals(size - 1, map.get((Object) ("key" + (size - 1))));
+            assertNull(map.get("missing"));
+            assertEquals(entries, map.entries().toList());
+
+            entries.add(Pair.of("key1", "again"));
+            try {
+                MapLike.forEntries(entries, JavaOps.INSTANCE);
+                fail("Expected duplicate key to be rejected");
+            } catch (final IllegalStateException e) {
+                assertEquals("Duplicate key key1 (attempted merging values 1 and again)", e.getMessage());
+            }
+        }
+    }
+
     @Test
     public void sizeLimitedList_roundTrip() {
         assertRoundTrip(
@@ -497,6 +559,54 @@ public class CodecTests {
 
     private static final Codec<Map<DispatchType, String>> DISPATCHED_MAP_CODEC = Codec.dispatchedMap(DispatchType.CODEC, t -> t.codec);
 
+    private static KeyDispatchCodec<String, Object> registryDispatch(final Map<String, MapCodec<?>> registry, final AtomicInteger lookups, final boolean cached) {
+        return new KeyDispatchCodec<>(
+            Codec.STRING.fieldOf("type"),
+            value -> DataResult.success(value instanceof Integer ? "int" : "string"),
+            type -> {
+                lookups.incrementAndGet();
+                final MapCodec<?> codec = registry.get(type);
+                return codec != null ? DataResult.success(codec) : DataResult.error(() -> "Unknown type: " + type);
+            },
+            cached
+        );
+    }
+
+    @Test
+    public void keyDispatch_cachesResolvedCodecs() {
+        final AtomicInteger lookups = new AtomicInteger();
+        final KeyDispatchCodec<String, Object> codec = registryDispatch(Map.of("int", Codec.INT.fieldOf("value"), "string", Codec.STRING.fieldOf("value")), lookups, true);
+        final Map<String, Object> input = Map.of("type", "int", "value", 3);
+
+        assertEquals(3, codec.codec().parse(JavaOps.INSTANCE, input).getOrThrow());
+        assertEquals(3, codec.codec().parse(JavaOps.INSTANCE, input).getOrThrow());
+        assertEquals(input, codec.codec().encodeStart(JavaOps.INSTANCE, 3).getOrThrow());
+        assertEquals(1, lookups.get());
+
+        assertTrue(codec.codec().parse(JavaOps.INSTANCE, Map.of("type", "long", "value", 3L)).isError());
+        assertTrue(codec.codec().parse(JavaOps.INSTANCE, Map.of("type", "long", "value", 3L)).isError());
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    public void keyDispatch_followsChangingLookup() {
+        final Map<String, MapCodec<?>> registry = new HashMap<>(Map.of("int", Codec.INT.fieldOf("value")));
+        final Map<String, Object> input = Map.of("type", "int", "value", 3);
+        final KeyDispatchCodec<String, Object> uncached = registryDispatch(registry, new AtomicInteger(), false);
+        final KeyDispatchCodec<String, Object> cached = registryDispatch(registry, new AtomicInteger(), true);
+        assertEquals(3, uncached.codec().parse(JavaOps.INSTANCE, input).getOrThrow());
+        assertEquals(3, cached.codec().parse(JavaOps.INSTANCE, input).getOrThrow());
+
+        // Reloading the registry swaps the codec registered for a key
+        registry.put("int", Codec.INT.xmap(i -> i * 2, i -> i / 2).fieldOf("value"));
+        assertEquals(6, uncached.codec().parse(JavaOps.INSTANCE, input).getOrThrow());
+        assertEquals(3, cached.codec().parse(JavaOps.INSTANCE, input).getOrThrow());
+
+        cached.invalidateCache();
+        assertEquals(6, cached.codec().parse(JavaOps.INSTANCE, input).getOrThrow());
+        assertEquals(input, cached.codec().encodeStart(JavaOps.INSTANCE, 6).getOrThrow());
+    }
+
     @Test
     public void dispatchedMap_encode() {
         assertEquals(
@@ -639,6 +749,50 @@ public class CodecTests {
         );
     }
 
+    @Test
+    public void optionalField_compressedTrailingAbsent() {
+        assertEquals(
+            new SimpleOptionals(Optional.of("foo"), Optional.empty()),
+            SimpleOptionals.STRICT_CODEC.parse(JsonOps.COMPRESSED, JsonParser.parseString("[\"foo\"]")).getOrThrow()
+        );
+        assertEquals(
+            JsonParser.parseString("[\"foo\",null]"),
+            SimpleOptionals.STRICT_CODEC.encodeStart(JsonOps.COMPRESSED, new SimpleOptionals(Optional.of("foo"), Optional.empty())).getOrThrow()
+        );
+    }
+
+    @Test
+    public void compressed_unknownKeysHaveNoSlot() {
+        // Declares only "a", so "b" has no slot in the compressed list
+        final MapCodec<Pair<Integer, Optional<Integer>>> codec = new MapCodec<>() {
+            @Override
+            public <T> Stream<T> keys(final DynamicOps<T> ops) {
+                return Stream.of(ops.createString("a"));
+            }
+
+            @Override
+            public <T> DataResult<Pair<Integer, Optional<Integer>>> decode(final DynamicOps<T> ops, final MapLike<T> input) {
+                final Optional<Integer> b = Optional.ofNullable(input.get("b")).map(value -> ops.getNumberValue(value).getOrThrow().intValue());
+                return ops.getNumberValue(input.get("a")).map(a -> Pair.of(a.intValue(), b));
+            }
+
+            @Override
+            public <T> RecordBuilder<T> encode(final Pair<Integer, Optional<Integer>> input, final DynamicOps<T> ops, final RecordBuilder<T> prefix) {
+                prefix.add("a", ops.createInt(input.getFirst()));
+                input.getSecond().ifPresent(b -> prefix.add("b", ops.createInt(b)));
+                return prefix;
+            }
+        };
+        assertEquals(-1, codec.compressor(JsonOps.COMPRESSED).compress("b"));
+        assertEquals(-1, codec.compressor(JsonOps.COMPRESSED).compress(JsonOps.COMPRESSED.createString("b")));
+
+        assertEquals(Pair.of(1, Optional.empty()), codec.codec().parse(JsonOps.COMPRESSED, JsonParser.parseString("[1]")).getOrThrow());
+        assertEquals(JsonParser.parseString("[1]"), codec.codec().encodeStart(JsonOps.COMPRESSED, Pair.of(1, Optional.empty())).getOrThrow());
+        final DataResult<JsonElement> unknown = codec.codec().encodeStart(JsonOps.COMPRESSED, Pair.of(1, Optional.of(2)));
+        assertEquals("Key b is not one of the compressed keys", unknown.error().orElseThrow().message());
+        assertEquals(Optional.of(JsonParser.parseString("[1]")), unknown.resultOrPartial());
+    }
+
     @Test
     public void optionalField_strictInvalidValues() {
         assertFromJavaFails(
@@ -673,6 +827,92 @@ public class CodecTests {
         );
     }
 
+    private record WideOptionals(
+        Optional<Integer> a,
+        Optional<Integer> b,
+        Optional<Integer> c,
+        Optional<Integer> d,
+        Optional<Integer> e,
+        Optional<Integer> f
+    ) {
+        public static final Codec<WideOptionals> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.INT.optionalFieldOf("a").forGetter(WideOptionals::a),
+            Codec.INT.optionalFieldOf("b").forGetter(WideOptionals::b),
+            Codec.INT.optionalFieldOf("c").forGetter(WideOptionals::c),
+            Codec.INT.optionalFieldOf("d").forGetter(WideOptionals::d),
+            Codec.INT.optionalFieldOf("e").forGetter(WideOptionals::e),
+            Codec.INT.optionalFieldOf("f").forGetter(WideOptionals::f)
+        ).apply(i, WideOptionals::new));
+    }
+
+    @Test
+    public void record_wideInvalidValues() {
+        final Map<String, Object> input = Map.of("a", 1, "c", "not an int", "e", false, "f", 6);
+        final DataResult<WideOptionals> result = WideOptionals.CODEC.parse(JavaOps.INSTANCE, input);
+        assertEquals(
+            new WideOptionals(Optional.of(1), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(6)),
+            result.getPartialOrThrow(AssertionError::new)
+        );
+        assertEquals(Lifecycle.experimental(), result.lifecycle());
+
+        final DataResult<WideOptionals> failFast = WideOptionals.CODEC.parse(FailFastOps.of(JavaOps.INSTANCE), input);
+        assertTrue(failFast.resultOrPartial().isEmpty());
+        assertEquals(
+            Codec.INT.parse(JavaOps.INSTANCE, "not an int").error().orElseThrow().message(),
+            failFast.error().orElseThrow().message()
+        );
+    }
+
+    private record Shape(String kind, int size, Pair<Integer, Integer> position, int version, String name) {
+        static final MapCodec<Pair<Integer, Integer>> POSITION = RecordCodecBuilder.mapCodec(i -> i.group(
+            Codec.INT.fieldOf("x").forGetter(Pair::getFirst),
+            Codec.INT.fieldOf("y").forGetter(Pair::getSecond)
+        ).apply(i, Pair::of));
+        static final Codec<Shape> CODEC = RecordCodecBuilder.create(i -> i.group(
+            Codec.STRING.fieldOf("kind").forGetter(Shape::kind),
+            Codec.STRING.fieldOf("kind").forGetter(Shape::kind).dependent(Shape::size, Codec.INT.fieldOf("size"), kind -> Codec.INT.fieldOf(kind.equals("square") ? "size" : "radius")),
+            POSITION.forGetter(Shape::position),
+            RecordCodecBuilder.point(1),
+            i.map(String::toUpperCase, Codec.STRING.fieldOf("name").forGetter(shape -> shape.name().toLowerCase(Locale.ROOT)))
+        ).apply(i, Shape::new));
+    }
+
+    @Test
+    public void record_encodesFieldsInDeclarationOrder() {
+        final Shape shape = new Shape("square", 2, Pair.of(3, 4), 1, "A");
+        final JsonElement encoded = Shape.CODEC.encodeStart(JsonOps.INSTANCE, shape).getOrThrow();
+        // Nested groups are flattened in place, the point has no field, and dependent fields are encoded with their own encoder
+        assertEquals(List.of("kind", "size", "x", "y", "name"), List.copyOf(encoded.getAsJsonObject().keySet()));
+        assertEquals(json("{\"kind\":\"square\",\"size\":2,\"x\":3,\"y\":4,\"name\":\"a\"}").getValue(), encoded);
+        assertEquals(shape, Shape.CODEC.parse(JsonOps.INSTANCE, encoded).getOrThrow());
+        assertEquals(new Shape("circle", 5, Pair.of(1, 2), 1, "B"), Shape.CODEC.parse(json("{\"kind\":\"circle\",\"radius\":5,\"x\":1,\"y\":2,\"name\":\"b\"}")).getOrThrow());
+
+        final Map<String, Object> java = new HashMap<>();
+        java.put("kind", "square");
+        java.put("size", 2);
+        java.put("x", 3);
+        java.put("y", 4);
+        java.put("name", "a");
+        assertEquals(java, Shape.CODEC.encodeStart(JavaOps.INSTANCE, shape).getOrThrow());
+    }
+
+    @Test
+    public void record_skipsFunctionAfterFailedArgument() {
+        final AtomicInteger decoded = new AtomicInteger();
+        final RecordCodecBuilder.Instance<Pair<Integer, Integer>> i = RecordCodecBuilder.instance();
+        final MapCodec<Pair<Integer, Integer>> codec = RecordCodecBuilder.build(i.ap(
+            i.map(b -> a -> Pair.of(a, b), Codec.INT.xmap(b -> decoded.incrementAndGet(), b -> b).fieldOf("b").forGetter(Pair::getSecond)),
+            Codec.INT.fieldOf("a").forGetter(Pair::getFirst)
+        ));
+
+        assertEquals(Pair.of(2, 1), codec.codec().parse(JavaOps.INSTANCE, Map.of("a", 2, "b", 7)).getOrThrow());
+        assertEquals(1, decoded.get());
+
+        // Like the nested decoders, the function is not decoded when its argument has failed without a partial value
+        assertTrue(codec.codec().parse(JavaOps.INSTANCE, Map.of("a", "not an int", "b", 7)).isError());
+        assertEquals(1, decoded.get());
+    }
+
     private record NestedStrictOptionals(
         Optional<SimpleOptionals> nested
     ) {
@@ -997,4 +1237,165 @@ public class CodecTests {
             "foo"
         );
     }
+
+    @Test
+    public void byteBuffer_isWritableCopy() {
+        final ByteArrayList list = ByteArrayList.wrap(new byte[] {1, 2, 3});
+        final ByteBuffer buffer = JavaOps.INSTANCE.getByteBuffer(list).getOrThrow();
+        buffer.put(0, (byte) 9);
+        assertEquals(1, list.getByte(0));
+
+        final ByteBuffer view = ByteBuffer.wrap(new byte[] {4, 5, 6}).asReadOnlyBuffer();
+        assertArrayEquals(new byte[] {4, 5, 6}, DataFixUtils.toArray(view));
+        assertEquals(0, view.position());
+    }
+
+    @Test
+    public void jsonText_infiniteNumbersAndRepeatedMerges() {
+        final JsonTextOps ops = JsonTextOps.INSTANCE;
+        assertEquals(DataResult.success(Double.POSITIVE_INFINITY), ops.getNumberValue(new JsonTextOps.Text("Infinity")));
+        assertEquals(DataResult.success(Double.NEGATIVE_INFINITY), ops.getNumberValue(new JsonTextOps.Text("-Infinity")));
+
+        JsonTextOps.Text map = ops.emptyMap();
+        for (int i = 0; i < 3; i++) {
+            map = ops.mergeToMap(map, ops.createString("k" + i), ops.createInt(i)).getOrThrow();
+        }
+        map = ops.mergeToMap(map, ops.createString("k0"), ops.createInt(9)).getOrThrow();
+        assertEquals("{\"k0\":9,\"k1\":1,\"k2\":2}", map.json());
+        assertEquals(DataResult.success(9), Codec.INT.fieldOf("k0").codec().parse(ops, map));
+    }
+
+    @Test
+    public void jsonText_replacesExistingKeysLikeJsonOps() {
+        final JsonTextOps ops = JsonTextOps.INSTANCE;
+        final Dynamic<JsonElement> json = json("{\"a\":1,\"b\":{\"a\":2}}");
+        final Dynamic<JsonTextOps.Text> text = json.convert(ops);
+
+        assertEquals(json.set("a", json.createInt(3)).getValue().toString(), text.set("a", text.createInt(3)).getValue().json());
+        assertEquals(json.set("c", json.createInt(3)).getValue().toString(), text.set("c", text.createInt(3)).getValue().json());
+        assertEquals(json.renameField("a", "b").getValue().toString(), text.renameField("a", "b").getValue().json());
+        assertEquals(json.update("a", a -> a.createInt(4)).getValue().toString(), text.update("a", a -> a.createInt(4)).getValue().json());
+
+        final JsonTextOps.Text built = ops.mapBuilder().add("a", ops.createInt(1)).add("b", ops.createInt(2)).add("a", ops.createInt(3)).build(ops.empty()).getOrThrow();
+        assertEquals("{\"a\":3,\"b\":2}", built.json());
+        final JsonTextOps.Text prefixed = ops.mapBuilder().add("c", ops.createInt(4)).add("a", ops.createInt(5)).build(built).getOrThrow();
+        assertEquals("{\"a\":5,\"b\":2,\"c\":4}", prefixed.json());
+
+        final MapLike<JsonTextOps.Text> values = ops.getMap(ops.createMap(Map.of(ops.createString("b"), ops.createInt(6)))).getOrThrow();
+        assertEquals("{\"a\":3,\"b\":6}", ops.mergeToMap(built, values).getOrThrow().json());
+    }
+
+    private static Dynamic<JsonElement> json(final String json) {
+        return new Dynamic<>(JsonOps.INSTANCE, JsonParser.parseString(json));
+    }
+
+    @Test
+    public void dynamic_setAllMatchesChainedSets() {
+        final Dynamic<JsonElement> input = json("{\"a\":1,\"b\":2}");
+        final Dynamic<JsonElement> b = json("3");
+        final Dynamic<JsonElement> c = json("4");
+
+        assertEquals(input.set("b", b).set("c", c), input.setAll(ImmutableMap.of("b", b, "c", c)));
+        assertSame(input, input.setAll(Map.of()));
+        assertEquals(json("{\"a\":1,\"b\":2}"), input);
+    }
+
+    @Test
+    public void dynamic_replaceFieldMatchesRemoveAndSet() {
+        final Dynamic<JsonElement> input = json("{\"a\":1,\"b\":2,\"c\":3}");
+        final Dynamic<JsonElement> value = json("9");
+
+        assertEquals(json("{\"a\":1,\"c\":3,\"d\":2}"), input.renameField("b", "d"));
+        assertEquals(json("{\"a\":1,\"c\":3,\"b\":9}"), input.replaceField("b", "b", Optional.of(value)));
+        assertEquals(json("{\"b\":2,\"c\":9}"), input.replaceField("a", "c", Optional.of(value)));
+        assertEquals(json("{\"a\":1,\"c\":3}"), input.replaceField("b", "d", Optional.empty()));
+        assertEquals(json("{\"a\":1,\"b\":2,\"c\":3}"), input);
+        // Empty values are not maps, but set turns them into one
+        final Dynamic<JsonElement> empty = new Dynamic<>(JsonOps.INSTANCE, JsonNull.INSTANCE);
+        assertEquals(empty.remove("a").set("b", value), empty.replaceField("a", "b", Optional.of(value)));
+    }
+
+    @Test
+    public void jsonRecordBuilder_sharesUnchangedObjects() {
+        final JsonObject prefix = JsonParser.parseString("{\"a\":1}").getAsJsonObject();
+        // Nothing was added, so the prefix is returned as is. This is safe as JsonOps never modifies an object it was given
+        final JsonElement unchanged = JsonOps.INSTANCE.mapBuilder().build(prefix).getOrThrow();
+        assertSame(prefix, unchanged);
+        JsonOps.INSTANCE.mergeToMap(unchanged, JsonOps.INSTANCE.createString("b"), JsonOps.INSTANCE.createInt(2)).getOrThrow();
+        assertEquals(JsonParser.parseString("{\"a\":1}"), prefix);
+
+        final JsonObject emptyPrefix = new JsonObject();
+        final JsonElement built = JsonOps.INSTANCE.mapBuilder().add("b", JsonOps.INSTANCE.createInt(2)).build(emptyPrefix).getOrThrow();
+        assertEquals(JsonParser.parseString("{\"b\":2}"), built);
+        assertEquals(0, emptyPrefix.size());
+
+        final JsonElement merged = JsonOps.INSTANCE.mapBuilder().add("b", JsonOps.INSTANCE.createInt(2)).build(prefix).getOrThrow();
+        assertEquals(JsonParser.parseString("{\"a\":1,\"b\":2}"), merged);
+        assertEquals(JsonParser.parseString("{\"a\":1}"), prefix);
+    }
+
+    @Test
+    public void dataResult_sharesCommonSuccesses() {
+        assertSame(DataResult.success(Unit.INSTANCE), DataResult.success(Unit.INSTANCE, Lifecycle.experimental()));
+        assertSame(DataResult.success(Unit.INSTANCE, Lifecycle.stable()), DataResult.success(Unit.INSTANCE, Lifecycle.stable()));
+        assertSame(DataResult.success(Optional.empty(), Lifecycle.stable()), DataResult.success(Optional.empty(), Lifecycle.stable()));
+        assertSame(DataResult.success(Optional.empty()), DataResult.success(Unit.INSTANCE).map(unit -> Optional.empty()));
+        assertSame(DataResult.success(Unit.INSTANCE, Lifecycle.stable()), DataResult.success(Unit.INSTANCE).setLifecycle(Lifecycle.stable()));
+
+        final Lifecycle deprecated = Lifecycle.deprecated(1);
+        final DataResult<Unit> result = DataResult.success(Unit.INSTANCE, deprecated);
+        assertSame(deprecated, result.lifecycle());
+        assertSame(DataResult.success(Unit.INSTANCE, Lifecycle.stable()), result.setLifecycle(Lifecycle.stable()));
+    }
+
+    @Test
+    public void dataResult_mapReturnsSameResultForSameValue() {
+        final DataResult<String> result = DataResult.success("value", Lifecycle.stable());
+        assertSame(result, result.map(value -> value));
+        assertSame(result, result.setLifecycle(Lifecycle.stable()));
+
+        final DataResult<String> mapped = result.map(value -> value + "!");
+        assertEquals(Optional.of("value!"), mapped.result());
+        assertSame(Lifecycle.stable(), mapped.lifecycle());
+    }
+
+    @Test
+    public void dataResult_apply2stableKeepsArgumentLifecycles() {
+        final Lifecycle deprecated = Lifecycle.deprecated(3);
+        final DataResult<Integer> stable = DataResult.success(1, Lifecycle.stable());
+
+        final DataResult<Integer> bothStable = stable.apply2stable(Integer::sum, DataResult.success(2, Lifecycle.stable()));
+        assertEquals(Optional.of(3), bothStable.result());
+        assertSame(Lifecycle.stable(), bothStable.lifecycle());
+
+        final DataResult<Integer> withDeprecated = stable.apply2stable(Integer::sum, DataResult.success(2, deprecated));
+        assertEquals(Optional.of(3), withDeprecated.result());
+        assertSame(deprecated, withDeprecated.lifecycle());
+
+        final DataResult<Integer> withExperimental = stable.apply2stable(Integer::sum, DataResult.success(2));
+        assertSame(Lifecycle.experimental(), withExperimental.lifecycle());
+
+        final DataResult<Integer> failed = stable.apply2stable(Integer::sum, DataResult.error(() -> "error", 4, Lifecycle.stable()));
+        assertEquals(Optional.of(5), failed.resultOrPartial());
+        assertSame(Lifecycle.stable(), failed.lifecycle());
+        assertEquals("error", failed.error().orElseThrow().message());
+    }
+
+    @Test
+    public void lifecycle_addKeepsWeakest() {
+        final Lifecycle older = Lifecycle.deprecated(1);
+        final Lifecycle newer = Lifecycle.deprecated(2);
+        assertSame(Lifecycle.stable(), Lifecycle.stable().add(Lifecycle.stable()));
+        assertSame(Lifecycle.experimental(), Lifecycle.stable().add(Lifecycle.experimental()));
+        assertSame(Lifecycle.experimental(), older.add(Lifecycle.experimental()));
+        assertSame(newer, Lifecycle.stable().add(newer));
+        assertSame(older, newer.add(older));
+        assertSame(older, older.add(newer));
+
+        final DataResult<Integer> first = DataResult.success(1, newer);
+        final DataResult<Integer> second = DataResult.success(2, older);
+        assertSame(older, first.apply2stable(Integer::sum, second).lifecycle());
+        assertSame(older, first.flatMap(value -> second).lifecycle());
+        assertSame(Lifecycle.experimental(), first.addLifecycle(Lifecycle.experimental()).lifecycle());
+    }
 }
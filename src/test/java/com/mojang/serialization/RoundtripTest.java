@@ -1,18 +1,36 @@
 package com.mojang.serialization;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.mojang.datafixers.util.Pair;
+import com.mojang.datafixers.util.Unit;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Random;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class RoundtripTest {
     private enum Day {
@@ -175,4 +193,165 @@ public class RoundtripTest {
     public void testReadWriteCompressedJson() {
         testReadWrite(JsonOps.COMPRESSED);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWriteReadJsonStream() {
+        final TestData data = makeRandomTestData();
+        final JsonElement json = TestData.CODEC.encodeStart(JsonOps.INSTANCE, data).getOrThrow();
+
+        final DataResult<TestData> decoded = JsonStreamOps.INSTANCE.parse(TestData.CODEC, new JsonReader(new StringReader(json.toString())));
+        assertEquals("read(write(x)) == x", DataResult.success(data), decoded);
+
+        final Object reEncoded = TestData.CODEC.encodeStart(JsonStreamOps.INSTANCE, data).getOrThrow();
+        assertEquals("convert(write(x)) == write(x)", json, JsonStreamOps.INSTANCE.convertTo(JsonOps.INSTANCE, reEncoded));
+    }
+
+    @Test
+    public void testReadJsonStreamElements() {
+        final TestData data = makeRandomTestData();
+        final JsonArray json = new JsonArray();
+        for (int i = 0; i < 3; i++) {
+            json.add(TestData.CODEC.encodeStart(JsonOps.INSTANCE, data).getOrThrow());
+        }
+
+        final List<DataResult<TestData>> decoded = JsonStreamOps.INSTANCE.parseElements(TestData.CODEC, new JsonReader(new StringReader(json.toString()))).toList();
+        assertEquals(List.of(DataResult.success(data), DataResult.success(data), DataResult.success(data)), decoded);
+    }
+
+    @Test
+    public void testWriteReadJsonText() {
+        testWriteRead(JsonTextOps.INSTANCE);
+    }
+
+    @Test
+    public void testReadWriteJsonText() {
+        testReadWrite(JsonTextOps.INSTANCE);
+    }
+
+    @Test
+    public void testWriteJsonTextElements() {
+        final TestData data = makeRandomTestData();
+        final JsonArray json = new JsonArray();
+        for (int i = 0; i < 3; i++) {
+            json.add(TestData.CODEC.encodeStart(JsonOps.INSTANCE, data).getOrThrow());
+        }
+
+        final StringWriter output = new StringWriter();
+        final DataResult<?> result = JsonTextOps.INSTANCE.encodeElements(TestData.CODEC, List.of(data, data, data).iterator(), new JsonWriter(output));
+        assertEquals(DataResult.success(Unit.INSTANCE), result);
+        assertEquals(json.toString(), output.toString());
+    }
+
+    @Test
+    public void testWriteReadBinary() {
+        testWriteRead(BinaryOps.INSTANCE);
+    }
+
+    @Test
+    public void testReadWriteBinary() {
+        testReadWrite(BinaryOps.INSTANCE);
+    }
+
+    @Test
+    public void testBinaryStream() throws IOException {
+        final TestData data = makeRandomTestData();
+        final ByteBuffer encoded = TestData.CODEC.encodeStart(BinaryOps.INSTANCE, data).getOrThrow();
+        final JsonElement json = TestData.CODEC.encodeStart(JsonOps.INSTANCE, data).getOrThrow();
+        assertEquals("convert(write(x)) == write(x)", json, BinaryOps.INSTANCE.convertTo(JsonOps.INSTANCE, encoded));
+        assertEquals("read(convert(write(x))) == x", DataResult.success(data), TestData.CODEC.parse(BinaryOps.INSTANCE, JsonOps.INSTANCE.convertTo(BinaryOps.INSTANCE, json)));
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryOps.INSTANCE.write(encoded, output);
+        BinaryOps.INSTANCE.write(BinaryOps.INSTANCE.createIntList(IntStream.range(0, 10)), output);
+
+        final ByteArrayInputStream input = new ByteArrayInputStream(output.toByteArray());
+        assertEquals(DataResult.success(data), TestData.CODEC.parse(BinaryOps.INSTANCE, BinaryOps.INSTANCE.read(input)));
+        assertEquals(45, BinaryOps.INSTANCE.getIntStream(BinaryOps.INSTANCE.read(input)).getOrThrow().sum());
+        assertNull(BinaryOps.INSTANCE.read(input));
+
+        final ByteBuffer buffer = ByteBuffer.wrap(output.toByteArray());
+        assertEquals(encoded, BinaryOps.INSTANCE.read(buffer));
+        assertEquals(Codec.INT.listOf().parse(BinaryOps.INSTANCE, BinaryOps.INSTANCE.read(buffer)).getOrThrow(), IntStream.range(0, 10).boxed().toList());
+    }
+
+    private static void assertUnreadable(final byte[] bytes, final Class<? extends IOException> expected) {
+        try {
+            BinaryOps.INSTANCE.read(new ByteArrayInputStream(bytes));
+            fail("Expected " + expected.getSimpleName());
+        } catch (final IOException e) {
+            assertEquals(expected, e.getClass());
+        }
+    }
+
+    @Test
+    public void testMalformedBinaryStream() throws IOException {
+        // Lengths are ints, so a sixth varint byte or a fifth one carrying bits past 31 is rejected
+        assertUnreadable(new byte[] {9, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0}, IOException.class);
+        assertUnreadable(new byte[] {9, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}, IOException.class);
+        // A huge claimed length only fails once the bytes run out
+        assertUnreadable(new byte[] {9, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x04, 'a'}, EOFException.class);
+        assertUnreadable(new byte[] {13, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, IOException.class);
+
+        // Numbers still take up to ten bytes
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryOps.INSTANCE.write(BinaryOps.INSTANCE.createLong(Long.MIN_VALUE), output);
+        final ByteBuffer value = BinaryOps.INSTANCE.read(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(DataResult.success(Long.MIN_VALUE), BinaryOps.INSTANCE.getNumberValue(value));
+    }
+
+    @Test
+    public void testMalformedBinaryValues() {
+        final BinaryOps ops = BinaryOps.INSTANCE;
+        final ByteBuffer map = ops.createMap(Map.of(ops.createString("a"), ops.createString("hello")));
+        final byte[] bytes = new byte[map.remaining()];
+        map.get(map.position(), bytes);
+        // The value's string length, after the map header and the key
+        final int valueLength = 3 + 3 + 1;
+        assertEquals(5, bytes[valueLength]);
+
+        final byte[] tooLong = bytes.clone();
+        tooLong[valueLength] = 50;
+        final byte[] unknownTag = bytes.clone();
+        unknownTag[valueLength - 1] = 99;
+        for (final byte[] corrupted : List.of(tooLong, unknownTag)) {
+            final ByteBuffer input = ByteBuffer.wrap(corrupted);
+            assertTrue(ops.getMap(input).isError());
+            assertTrue(ops.getMapValues(input).isError());
+            assertTrue(ops.getMapEntries(input).isError());
+            assertTrue(ops.get(input, "a").isError());
+            assertTrue(ops.get(input, "b").isError());
+            assertTrue(Codec.unboundedMap(Codec.STRING, Codec.STRING).parse(ops, input).isError());
+        }
+
+        assertTrue(ops.getStringValue(ByteBuffer.wrap(new byte[] {9, 5, 'a'})).isError());
+        assertTrue(ops.getNumberValue(ByteBuffer.wrap(new byte[] {5})).isError());
+        assertTrue(ops.getNumberValue(ByteBuffer.wrap(new byte[] {8, 0, 0})).isError());
+        assertTrue(ops.getIntStream(ByteBuffer.wrap(new byte[] {13, 2, 0, 0, 0, 1})).isError());
+        assertTrue(ops.getStream(ByteBuffer.wrap(new byte[] {10, 3, 2, 0})).isError());
+        assertTrue(ops.getList(ByteBuffer.wrap(new byte[] {10, 3, 1, 99, 0})).isError());
+    }
+
+    @Test
+    public void testReadMappedBinaryFile() throws IOException {
+        final TestData data = makeRandomTestData();
+        final ByteBuffer encoded = TestData.CODEC.encodeStart(BinaryOps.INSTANCE, data).getOrThrow();
+        final Path file = Files.createTempFile("roundtrip", ".bin");
+        try {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            for (int i = 0; i < 3; i++) {
+                BinaryOps.INSTANCE.write(encoded, output);
+            }
+            Files.write(file, output.toByteArray());
+
+            // Regions that fit a single value at a time force a remap for every value
+            for (final int region : new int[] {Integer.MAX_VALUE, encoded.remaining() + 1}) {
+                try (final Stream<ByteBuffer> values = BinaryOps.INSTANCE.readAll(file, region)) {
+                    final List<DataResult<TestData>> decoded = values.map(value -> TestData.CODEC.parse(BinaryOps.INSTANCE, value)).toList();
+                    assertEquals(List.of(DataResult.success(data), DataResult.success(data), DataResult.success(data)), decoded);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}